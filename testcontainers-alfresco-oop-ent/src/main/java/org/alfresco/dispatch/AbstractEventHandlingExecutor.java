@@ -0,0 +1,119 @@
+package org.alfresco.dispatch;
+
+import org.alfresco.event.sdk.handling.EventHandlingExecutor;
+import org.alfresco.event.sdk.handling.handler.EventHandler;
+import org.alfresco.jfr.FilterEvent;
+import org.alfresco.jfr.HandlerEvent;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.EventType;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.springframework.util.ClassUtils;
+
+import java.util.*;
+
+/**
+ * Base class for the {@link EventHandlingExecutor} implementations that dispatch events to the {@link EventHandler} beans.
+ * <p>
+ * Handlers are indexed by the event types they handle when the executor is created, so finding the handlers
+ * of an event is a single map lookup. Subclasses decide on which thread the handlers are invoked.
+ * <p>
+ * Filter evaluations and handler invocations emit a {@link FilterEvent} and a {@link HandlerEvent}
+ * when Java Flight Recorder is enabled.
+ */
+public abstract class AbstractEventHandlingExecutor implements EventHandlingExecutor {
+
+    private final Map<String, List<EventHandler>> handlersByEventType = new HashMap<>();
+
+    /**
+     * Creates the executor for the given handlers.
+     *
+     * @param eventHandlers the handlers registered in the application
+     */
+    protected AbstractEventHandlingExecutor(Collection<? extends EventHandler> eventHandlers) {
+        for (EventHandler eventHandler : eventHandlers) {
+            for (EventType eventType : eventHandler.getHandledEventTypes()) {
+                handlersByEventType.computeIfAbsent(eventType.getType(), key -> new ArrayList<>()).add(eventHandler);
+            }
+        }
+    }
+
+    /**
+     * Returns the handlers registered for the type of the given event.
+     *
+     * @param event the event to dispatch
+     * @return the handlers of the event type, which may be empty
+     */
+    protected List<EventHandler> handlersFor(RepoEvent<DataAttributes<Resource>> event) {
+        return handlersByEventType.getOrDefault(event.getType(), List.of());
+    }
+
+    /**
+     * Returns every handler known by this executor, once.
+     *
+     * @return the registered handlers
+     */
+    protected Set<EventHandler> allHandlers() {
+        Set<EventHandler> handlers = new LinkedHashSet<>();
+        handlersByEventType.values().forEach(handlers::addAll);
+        return handlers;
+    }
+
+    /**
+     * Evaluates the filter of a handler for an event.
+     *
+     * @param eventHandler the handler
+     * @param event        the event to dispatch
+     * @return {@code true} if the handler has to process the event
+     */
+    protected boolean accepts(EventHandler eventHandler, RepoEvent<DataAttributes<Resource>> event) {
+        FilterEvent filterEvent = new FilterEvent();
+        filterEvent.begin();
+        boolean accepted = eventHandler.getEventFilter().test(event);
+        filterEvent.end();
+        if (filterEvent.shouldCommit()) {
+            filterEvent.handler = handlerName(eventHandler);
+            filterEvent.eventType = event.getType();
+            filterEvent.accepted = accepted;
+            filterEvent.commit();
+        }
+        return accepted;
+    }
+
+    /**
+     * Invokes a handler with an event that has been accepted by its filter.
+     *
+     * @param eventHandler the handler
+     * @param event        the event to process
+     */
+    protected void invoke(EventHandler eventHandler, RepoEvent<DataAttributes<Resource>> event) {
+        HandlerEvent handlerEvent = new HandlerEvent();
+        handlerEvent.begin();
+        boolean succeeded = false;
+        try {
+            eventHandler.handleEvent(event);
+            succeeded = true;
+        } finally {
+            handlerEvent.end();
+            if (handlerEvent.shouldCommit()) {
+                handlerEvent.handler = handlerName(eventHandler);
+                handlerEvent.eventType = event.getType();
+                handlerEvent.eventId = event.getId();
+                handlerEvent.succeeded = succeeded;
+                handlerEvent.commit();
+            }
+        }
+    }
+
+    /**
+     * Returns the name used to identify a handler in configuration properties, logs and metrics.
+     *
+     * @param eventHandler the handler
+     * @return the simple class name of the handler, ignoring Spring proxies
+     */
+    public static String handlerName(EventHandler eventHandler) {
+        Class<?> handlerClass = ClassUtils.getUserClass(eventHandler);
+        return handlerClass.getSimpleName().isEmpty() ? handlerClass.getName() : handlerClass.getSimpleName();
+    }
+
+}
@@ -0,0 +1,79 @@
+package org.alfresco.dispatch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.alfresco.event.sdk.handling.handler.EventHandler;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * An executor isolating every handler in its own {@link HandlerBulkhead}, so a slow or failing handler
+ * does not delay the events of the other handlers.
+ * <p>
+ * Filters are evaluated on the thread consuming the events, as they are expected to be cheap,
+ * and the accepted events are queued to the bulkhead of each handler.
+ * Note that the JMS message is acknowledged once the event has been queued, so queued events are lost
+ * if the application stops before processing them.
+ */
+public class BulkheadEventHandlingExecutor extends AbstractEventHandlingExecutor implements AutoCloseable {
+
+    private final ScheduledExecutorService watchdog =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("handler-watchdog-"));
+
+    private final Map<EventHandler, HandlerBulkhead> bulkheads = new IdentityHashMap<>();
+
+    /**
+     * Creates the executor and the bulkheads of the given handlers.
+     *
+     * @param eventHandlers the handlers registered in the application
+     * @param properties    the bulkhead configuration
+     * @param meterRegistry the registry of the bulkhead metrics
+     */
+    public BulkheadEventHandlingExecutor(Collection<? extends EventHandler> eventHandlers,
+                                         EventDispatchProperties.Bulkhead properties, MeterRegistry meterRegistry) {
+        super(eventHandlers);
+        for (EventHandler eventHandler : allHandlers()) {
+            String handlerName = handlerName(eventHandler);
+            bulkheads.put(eventHandler, new HandlerBulkhead(handlerName, event -> invoke(eventHandler, event),
+                    properties.settingsFor(handlerName), watchdog, meterRegistry));
+        }
+    }
+
+    @Override
+    public void executeEventHandlers(RepoEvent<DataAttributes<Resource>> event) {
+        for (EventHandler eventHandler : handlersFor(event)) {
+            if (accepts(eventHandler, event)) {
+                bulkheads.get(eventHandler).submit(event);
+            }
+        }
+    }
+
+    /**
+     * Returns the bulkhead of a handler.
+     *
+     * @param eventHandler the handler
+     * @return the bulkhead, or {@code null} if the handler is not known by this executor
+     */
+    public HandlerBulkhead bulkheadOf(EventHandler eventHandler) {
+        return bulkheads.get(eventHandler);
+    }
+
+    /**
+     * Stops the bulkheads, letting them complete the events already queued. All the bulkheads are stopped before
+     * waiting for any of them, so closing takes at most the longest invocation timeout instead of their sum.
+     */
+    @Override
+    public void close() {
+        bulkheads.values().forEach(HandlerBulkhead::shutdown);
+        bulkheads.values().forEach(HandlerBulkhead::awaitTermination);
+        watchdog.shutdownNow();
+    }
+
+}
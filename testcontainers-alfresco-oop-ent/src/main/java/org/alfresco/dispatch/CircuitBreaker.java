@@ -0,0 +1,118 @@
+package org.alfresco.dispatch;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A circuit breaker counting the consecutive failures of a handler.
+ * <p>
+ * The circuit opens when the failure threshold is reached, and events are not dispatched to the handler while it is open.
+ * Once the open duration has elapsed, a single trial event is let through: the circuit closes if the trial succeeds
+ * and opens again if it fails. A new trial is let through after another open duration if the previous one never completed.
+ * Successes reported while the circuit is open, by executions started before it opened, do not close it.
+ */
+public class CircuitBreaker {
+
+    /**
+     * The states of the circuit.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    /**
+     * Creates a circuit breaker using the system clock.
+     *
+     * @param failureThreshold the number of consecutive failures opening the circuit
+     * @param openDuration     the time the circuit stays open before letting a trial event through
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    /**
+     * Creates a circuit breaker.
+     *
+     * @param failureThreshold the number of consecutive failures opening the circuit
+     * @param openDuration     the time the circuit stays open before letting a trial event through
+     * @param nanoClock        the clock, in nanoseconds, used to measure the open duration
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Checks whether an event can be dispatched to the handler.
+     *
+     * @return {@code true} if the circuit is closed, or if the event is the trial of a circuit that was open
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        // While half open, another trial is only let through if the previous one was lost, e.g. rejected by a full queue
+        long now = nanoClock.getAsLong();
+        if (now - openedAt < openDurationNanos) {
+            return false;
+        }
+        state = State.HALF_OPEN;
+        openedAt = now;
+        return true;
+    }
+
+    /**
+     * Records a successful execution of the handler. While the circuit is open, successes are ignored, as they come
+     * from executions started before it opened: only the trial closes the circuit.
+     *
+     * @return {@code true} if this success closed a half open circuit
+     */
+    public synchronized boolean onSuccess() {
+        switch (state) {
+            case CLOSED -> consecutiveFailures = 0;
+            case HALF_OPEN -> {
+                consecutiveFailures = 0;
+                state = State.CLOSED;
+                return true;
+            }
+            case OPEN -> {
+                // Late success of an execution started before the circuit opened
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records a failed execution of the handler, including timeouts.
+     *
+     * @return {@code true} if this failure opened the circuit
+     */
+    public synchronized boolean onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the current state of the circuit.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+}
@@ -0,0 +1,304 @@
+package org.alfresco.dispatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.alfresco.event.sdk.handling.EventHandlingExecutor;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.NodeResource;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An executor holding node events for a time window before passing them to another executor, so that bursts of
+ * events for the same node, like the {@code Created} and {@code Updated} events of a bulk upload, are delivered
+ * as their net effect according to the {@link CoalescingRule}s.
+ * <p>
+ * The window starts with the first event buffered for a node and is not extended by the following events.
+ * When it elapses, the event is handed to a delivery thread, which passes the expired events to the other executor
+ * one at a time, so a slow executor does not block the scheduler or the lock of this executor. Events that cannot
+ * be coalesced are delivered immediately, after the event buffered for the same node, if any. The order of the
+ * events of a node is preserved: while an event of the node is waiting for the delivery thread, the following
+ * events of the node are handed to that thread too.
+ * </p>
+ * <p>
+ * The memory is bounded by {@code maxBufferedNodes}, which counts both the buffered events and the events waiting
+ * for the delivery thread. When the limit is reached, new nodes are not buffered and their events are delivered
+ * immediately, and an event that has to be handed to the delivery thread makes the consuming thread wait until
+ * the delivery thread catches up. So no event is held for longer than the window unless the other executor falls
+ * behind, in which case the consumption of events is slowed down instead of the backlog growing.
+ * </p>
+ * <p>
+ * Errors thrown by the other executor are propagated to the caller when the event is delivered on its thread.
+ * Errors on the delivery thread have no caller to report to: they are logged and the event is dropped,
+ * as the JMS message has already been acknowledged.
+ * </p>
+ * The following metrics are registered:
+ * <ul>
+ *     <li>{@code alfresco.events.coalescing.buffered}: nodes with a buffered event</li>
+ *     <li>{@code alfresco.events.coalescing.coalesced}: events absorbed into a buffered event, tagged with the rule</li>
+ *     <li>{@code alfresco.events.coalescing.overflow}: events delivered immediately because the buffer was full</li>
+ * </ul>
+ */
+public class CoalescingEventHandlingExecutor implements EventHandlingExecutor, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoalescingEventHandlingExecutor.class);
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final EventHandlingExecutor delegate;
+    private final long windowNanos;
+    private final int maxBufferedNodes;
+    private final EventMerger eventMerger = new EventMerger();
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("event-coalescing-"));
+    private final ExecutorService deliveryExecutor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("event-coalescing-delivery-"));
+
+    // Guarded by this
+    private final Map<String, Buffered> buffered = new HashMap<>();
+    // Guarded by this, number of events of every node handed to the delivery thread and not delivered yet
+    private final Map<String, Integer> handedOver = new HashMap<>();
+    // Guarded by this, total of the handed over events
+    private int handedOverCount;
+
+    private final Map<CoalescingRule, Counter> coalesced = new HashMap<>();
+    private final Counter overflow;
+
+    /**
+     * Creates the executor.
+     *
+     * @param delegate      the executor receiving the coalesced events
+     * @param properties    the coalescing configuration
+     * @param meterRegistry the registry of the coalescing metrics
+     */
+    public CoalescingEventHandlingExecutor(EventHandlingExecutor delegate, EventDispatchProperties.Coalescing properties,
+                                           MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.windowNanos = properties.getWindow().toNanos();
+        this.maxBufferedNodes = properties.getMaxBufferedNodes();
+        Gauge.builder("alfresco.events.coalescing.buffered", this, CoalescingEventHandlingExecutor::bufferedCount)
+                .register(meterRegistry);
+        for (CoalescingRule rule : List.of(CoalescingRule.MERGE, CoalescingRule.SUPERSEDE, CoalescingRule.CANCEL)) {
+            coalesced.put(rule, Counter.builder("alfresco.events.coalescing.coalesced")
+                    .tag("rule", rule.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.overflow = Counter.builder("alfresco.events.coalescing.overflow").register(meterRegistry);
+    }
+
+    @Override
+    public void executeEventHandlers(RepoEvent<DataAttributes<Resource>> event) {
+        String nodeId = nodeId(event);
+        if (nodeId == null) {
+            delegate.executeEventHandlers(event);
+            return;
+        }
+        // Delivered after releasing the lock, so a slow executor does not block the delivery thread and the scheduler
+        for (RepoEvent<DataAttributes<Resource>> ready : coalesce(nodeId, event)) {
+            delegate.executeEventHandlers(ready);
+        }
+    }
+
+    /**
+     * Returns the number of nodes with a buffered event.
+     *
+     * @return the number of buffered nodes
+     */
+    public synchronized int bufferedCount() {
+        return buffered.size();
+    }
+
+    /**
+     * Applies the coalescing rules to a node event.
+     *
+     * @return the events to deliver on the calling thread, in order
+     */
+    private synchronized List<RepoEvent<DataAttributes<Resource>>> coalesce(String nodeId, RepoEvent<DataAttributes<Resource>> event) {
+        awaitCapacity(nodeId);
+        List<RepoEvent<DataAttributes<Resource>>> ready = new ArrayList<>(2);
+        if (!CoalescingRule.COALESCED_EVENT_TYPES.contains(event.getType())) {
+            flush(nodeId, ready);
+            ready.add(event);
+            return handOverIfPending(nodeId, ready);
+        }
+
+        Buffered current = buffered.get(nodeId);
+        if (current == null) {
+            buffer(nodeId, event, ready);
+            return handOverIfPending(nodeId, ready);
+        }
+        CoalescingRule rule = CoalescingRule.between(current.event.getType(), event.getType());
+        switch (rule) {
+            case MERGE -> current.event = eventMerger.merge(current.event, event);
+            case SUPERSEDE -> current.event = event;
+            case CANCEL -> {
+                buffered.remove(nodeId);
+                current.expiry.cancel(false);
+            }
+            case FLUSH -> {
+                flush(nodeId, ready);
+                buffer(nodeId, event, ready);
+            }
+        }
+        if (rule != CoalescingRule.FLUSH) {
+            coalesced.get(rule).increment();
+            LOGGER.debug("Event {} for node {} coalesced with rule {}", event.getId(), nodeId, rule);
+        }
+        return handOverIfPending(nodeId, ready);
+    }
+
+    private void buffer(String nodeId, RepoEvent<DataAttributes<Resource>> event, List<RepoEvent<DataAttributes<Resource>>> ready) {
+        if (heldCount() >= maxBufferedNodes) {
+            overflow.increment();
+            ready.add(event);
+            return;
+        }
+        Buffered entry = new Buffered(event);
+        entry.expiry = scheduler.schedule(() -> expire(nodeId, entry), windowNanos, TimeUnit.NANOSECONDS);
+        buffered.put(nodeId, entry);
+    }
+
+    private void flush(String nodeId, List<RepoEvent<DataAttributes<Resource>>> ready) {
+        Buffered entry = buffered.remove(nodeId);
+        if (entry != null) {
+            entry.expiry.cancel(false);
+            ready.add(entry.event);
+        }
+    }
+
+    private synchronized void expire(String nodeId, Buffered entry) {
+        if (buffered.get(nodeId) == entry) {
+            buffered.remove(nodeId);
+            handOver(nodeId, entry.event);
+        }
+    }
+
+    /**
+     * Waits, before the state of a node is changed, while the node has events waiting for the delivery thread
+     * and handing over up to two more events, a flushed one and the new one, would exceed the limit.
+     * The wait ends as well when the waiting events of the node are delivered, as new events can then be
+     * delivered on the calling thread.
+     */
+    private void awaitCapacity(String nodeId) {
+        try {
+            while (handedOver.containsKey(nodeId) && heldCount() + 2 > maxBufferedNodes) {
+                wait();
+            }
+        } catch (InterruptedException interrupted) {
+            // The event is processed anyway, so it is not lost
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands the events over to the delivery thread if an earlier event of the node is still waiting for it,
+     * so they are not delivered before that event.
+     *
+     * @return the events left to deliver on the calling thread
+     */
+    private List<RepoEvent<DataAttributes<Resource>>> handOverIfPending(String nodeId, List<RepoEvent<DataAttributes<Resource>>> ready) {
+        if (!handedOver.containsKey(nodeId)) {
+            return ready;
+        }
+        ready.forEach(event -> handOver(nodeId, event));
+        return List.of();
+    }
+
+    /**
+     * Returns the number of events held, buffered or waiting for the delivery thread.
+     */
+    private int heldCount() {
+        return buffered.size() + handedOverCount;
+    }
+
+    private void handOver(String nodeId, RepoEvent<DataAttributes<Resource>> event) {
+        try {
+            deliveryExecutor.execute(() -> deliver(nodeId, event));
+            handedOver.merge(nodeId, 1, Integer::sum);
+            handedOverCount++;
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            LOGGER.warn("Coalesced event {} for node {} dropped as the executor is closed", event.getId(), nodeId);
+        }
+    }
+
+    private void deliver(String nodeId, RepoEvent<DataAttributes<Resource>> event) {
+        try {
+            delegate.executeEventHandlers(event);
+        } catch (RuntimeException exception) {
+            // Delivery thread has no caller to report to
+            LOGGER.error("An error occurred while delivering the coalesced event {}", event.getId(), exception);
+        } finally {
+            synchronized (this) {
+                handedOver.computeIfPresent(nodeId, (key, count) -> count > 1 ? count - 1 : null);
+                handedOverCount--;
+                notifyAll();
+            }
+        }
+    }
+
+    private static String nodeId(RepoEvent<DataAttributes<Resource>> event) {
+        if (event.getData() != null && event.getData().getResource() instanceof NodeResource nodeResource) {
+            return nodeResource.getId();
+        }
+        return null;
+    }
+
+    /**
+     * Delivers the buffered events and closes the executor receiving them.
+     *
+     * @throws Exception if the delegate executor cannot be closed
+     */
+    @Override
+    public void close() throws Exception {
+        scheduler.shutdownNow();
+        synchronized (this) {
+            for (Map.Entry<String, Buffered> entry : buffered.entrySet()) {
+                entry.getValue().expiry.cancel(false);
+                handOver(entry.getKey(), entry.getValue().event);
+            }
+            buffered.clear();
+        }
+        deliveryExecutor.shutdown();
+        try {
+            if (!deliveryExecutor.awaitTermination(CLOSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Coalesced events were still being delivered when the executor was closed");
+                deliveryExecutor.shutdownNow();
+            }
+        } catch (InterruptedException interrupted) {
+            deliveryExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * The event buffered for a node, replaced when events are merged or superseded.
+     */
+    private static final class Buffered {
+
+        private RepoEvent<DataAttributes<Resource>> event;
+        private ScheduledFuture<?> expiry;
+
+        private Buffered(RepoEvent<DataAttributes<Resource>> event) {
+            this.event = event;
+        }
+    }
+
+}
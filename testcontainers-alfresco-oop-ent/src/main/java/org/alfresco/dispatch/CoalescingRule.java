@@ -0,0 +1,58 @@
+package org.alfresco.dispatch;
+
+import org.alfresco.repo.event.v1.model.EventType;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * How an event for a node is combined with the event already buffered for the same node
+ * by the {@link CoalescingEventHandlingExecutor}.
+ */
+public enum CoalescingRule {
+
+    /**
+     * The buffered event is kept, with the resource state of the new event, see {@link EventMerger}.
+     */
+    MERGE,
+    /**
+     * The buffered event is replaced by the new event.
+     */
+    SUPERSEDE,
+    /**
+     * Both events cancel each other and nothing is delivered, e.g. a node created and deleted within the window.
+     */
+    CANCEL,
+    /**
+     * The buffered event is delivered and the new event is buffered in its place.
+     */
+    FLUSH;
+
+    /**
+     * The event types that can be buffered.
+     */
+    public static final Set<String> COALESCED_EVENT_TYPES = Set.of(
+            EventType.NODE_CREATED.getType(),
+            EventType.NODE_UPDATED.getType(),
+            EventType.NODE_DELETED.getType());
+
+    private static final Map<String, Map<String, CoalescingRule>> RULES = Map.of(
+            EventType.NODE_CREATED.getType(), Map.of(
+                    EventType.NODE_UPDATED.getType(), MERGE,
+                    EventType.NODE_DELETED.getType(), CANCEL),
+            EventType.NODE_UPDATED.getType(), Map.of(
+                    EventType.NODE_UPDATED.getType(), MERGE,
+                    EventType.NODE_DELETED.getType(), SUPERSEDE));
+
+    /**
+     * Returns the rule combining two events for the same node.
+     *
+     * @param bufferedType the type of the buffered event
+     * @param nextType     the type of the new event
+     * @return the rule, {@link #FLUSH} when the events cannot be combined
+     */
+    public static CoalescingRule between(String bufferedType, String nextType) {
+        return RULES.getOrDefault(bufferedType, Map.of()).getOrDefault(nextType, FLUSH);
+    }
+
+}
@@ -0,0 +1,35 @@
+package org.alfresco.dispatch;
+
+import org.alfresco.event.sdk.handling.handler.EventHandler;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+
+import java.util.Collection;
+
+/**
+ * An executor invoking every handler of an event, one after the other, on the thread consuming the events.
+ * <p>
+ * This is the behaviour of the executor provided by the Alfresco Java SDK, and it is used when bulkheads are disabled.
+ */
+public class DirectEventHandlingExecutor extends AbstractEventHandlingExecutor {
+
+    /**
+     * Creates the executor for the given handlers.
+     *
+     * @param eventHandlers the handlers registered in the application
+     */
+    public DirectEventHandlingExecutor(Collection<? extends EventHandler> eventHandlers) {
+        super(eventHandlers);
+    }
+
+    @Override
+    public void executeEventHandlers(RepoEvent<DataAttributes<Resource>> event) {
+        for (EventHandler eventHandler : handlersFor(event)) {
+            if (accepts(eventHandler, event)) {
+                invoke(eventHandler, event);
+            }
+        }
+    }
+
+}
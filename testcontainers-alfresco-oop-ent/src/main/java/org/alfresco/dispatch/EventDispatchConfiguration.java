@@ -0,0 +1,48 @@
+package org.alfresco.dispatch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.alfresco.event.sdk.handling.EventHandlingExecutor;
+import org.alfresco.event.sdk.handling.handler.EventHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Replaces the {@link EventHandlingExecutor} provided by the Alfresco Java SDK with the executor described
+ * by the {@code alfresco.events.dispatch} properties.
+ */
+@Configuration
+@EnableConfigurationProperties(EventDispatchProperties.class)
+public class EventDispatchConfiguration {
+
+    /**
+     * Creates the executor dispatching the events to the handlers.
+     *
+     * @param eventHandlers the handlers registered in the application
+     * @param properties    the dispatch configuration
+     * @param meterRegistry the registry of the dispatch metrics
+     * @return a {@link BulkheadEventHandlingExecutor} when bulkheads are enabled, or a {@link DirectEventHandlingExecutor}
+     * otherwise, behind a {@link PriorityLaneEventHandlingExecutor} when priority lanes are enabled, and behind
+     * a {@link CoalescingEventHandlingExecutor} when coalescing is enabled, so events are coalesced in the order
+     * they are received, before they are classified into lanes
+     */
+    @Bean
+    public EventHandlingExecutor eventHandlingExecutor(ObjectProvider<EventHandler> eventHandlers,
+                                                       EventDispatchProperties properties, MeterRegistry meterRegistry) {
+        List<EventHandler> handlers = eventHandlers.orderedStream().toList();
+        EventHandlingExecutor executor = properties.getBulkhead().isEnabled()
+                ? new BulkheadEventHandlingExecutor(handlers, properties.getBulkhead(), meterRegistry)
+                : new DirectEventHandlingExecutor(handlers);
+        if (properties.getPriority().isEnabled()) {
+            executor = new PriorityLaneEventHandlingExecutor(executor, properties.getPriority(), meterRegistry);
+        }
+        if (properties.getCoalescing().isEnabled()) {
+            executor = new CoalescingEventHandlingExecutor(executor, properties.getCoalescing(), meterRegistry);
+        }
+        return executor;
+    }
+
+}
@@ -0,0 +1,393 @@
+package org.alfresco.dispatch;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of the dispatching of events to the handlers, bound to the {@code alfresco.events.dispatch} properties.
+ */
+@ConfigurationProperties(prefix = "alfresco.events.dispatch")
+public class EventDispatchProperties {
+
+    private final Bulkhead bulkhead = new Bulkhead();
+    private final Coalescing coalescing = new Coalescing();
+    private final Priority priority = new Priority();
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Per-handler isolation, see {@link BulkheadEventHandlingExecutor}.
+     * <p>
+     * Values under {@code defaults} apply to every handler. A handler can override some of them with its own entry
+     * under {@code handlers}, keyed by the simple class name of the handler, e.g.
+     * {@code alfresco.events.dispatch.bulkhead.handlers.HtmlContentCreatedHandler.workers=2}; the values it does not
+     * set are still taken from {@code defaults}.
+     */
+    public static class Bulkhead {
+
+        private boolean enabled = false;
+        private BulkheadSettings defaults = new BulkheadSettings();
+        private Map<String, BulkheadSettings> handlers = new HashMap<>();
+
+        /**
+         * Returns the settings of a handler, matching the name without case as property keys may be normalized.
+         * Values that are not set for the handler are taken from {@code defaults}, and then from the built-in values.
+         *
+         * @param handlerName the simple class name of the handler
+         * @return the merged settings of the handler
+         */
+        public BulkheadSettings settingsFor(String handlerName) {
+            BulkheadSettings resolvedDefaults = defaults.withFallback(BulkheadSettings.BUILT_IN);
+            return handlers.entrySet().stream()
+                    .filter(entry -> entry.getKey().equalsIgnoreCase(handlerName))
+                    .map(entry -> entry.getValue().withFallback(resolvedDefaults))
+                    .findFirst()
+                    .orElse(resolvedDefaults);
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public BulkheadSettings getDefaults() {
+            return defaults;
+        }
+
+        public void setDefaults(BulkheadSettings defaults) {
+            this.defaults = defaults;
+        }
+
+        public Map<String, BulkheadSettings> getHandlers() {
+            return handlers;
+        }
+
+        public void setHandlers(Map<String, BulkheadSettings> handlers) {
+            this.handlers = handlers;
+        }
+    }
+
+    /**
+     * Time-window coalescing of the events of a node, see {@link CoalescingEventHandlingExecutor}.
+     */
+    public static class Coalescing {
+
+        private boolean enabled = false;
+
+        /**
+         * Time an event is held for a node before it is handed to the delivery thread.
+         */
+        private Duration window = Duration.ofMillis(500);
+
+        /**
+         * Maximum number of events held, buffered or waiting for the delivery thread, beyond which the events
+         * of new nodes are delivered immediately and the consumption waits for the delivery thread.
+         */
+        private int maxBufferedNodes = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMaxBufferedNodes() {
+            return maxBufferedNodes;
+        }
+
+        public void setMaxBufferedNodes(int maxBufferedNodes) {
+            this.maxBufferedNodes = maxBufferedNodes;
+        }
+    }
+
+    /**
+     * Priority lanes by event type, see {@link PriorityLaneEventHandlingExecutor}.
+     * <p>
+     * Lanes are declared under {@code lanes}, keyed by their name, e.g.
+     * {@code alfresco.events.dispatch.priority.lanes.high.event-types=org.alfresco.event.node.Created}.
+     * Event types not listed in any lane are classified in the default lane.
+     */
+    public static class Priority {
+
+        private boolean enabled = false;
+        private String defaultLane = "normal";
+        private Map<String, LaneSettings> lanes = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDefaultLane() {
+            return defaultLane;
+        }
+
+        public void setDefaultLane(String defaultLane) {
+            this.defaultLane = defaultLane;
+        }
+
+        public Map<String, LaneSettings> getLanes() {
+            return lanes;
+        }
+
+        public void setLanes(Map<String, LaneSettings> lanes) {
+            this.lanes = lanes;
+        }
+    }
+
+    /**
+     * The scheduling weight, capacity and event types of a priority lane.
+     */
+    public static class LaneSettings {
+
+        public static final int DEFAULT_CAPACITY = 10000;
+
+        /**
+         * Share of the dispatching given to the lane while other lanes have events.
+         */
+        private int weight = 1;
+
+        /**
+         * Number of events waiting in the lane, beyond which the consumption of events waits or events are shed,
+         * depending on the overflow policy.
+         */
+        private int capacity = DEFAULT_CAPACITY;
+
+        /**
+         * What happens to the events classified in the lane while it is full, {@code BLOCK} by default.
+         */
+        private LaneOverflowPolicy overflowPolicy = LaneOverflowPolicy.BLOCK;
+
+        /**
+         * Event types classified in the lane, e.g. {@code org.alfresco.event.node.Created}.
+         */
+        private List<String> eventTypes = new ArrayList<>();
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public LaneOverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(LaneOverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public List<String> getEventTypes() {
+            return eventTypes;
+        }
+
+        public void setEventTypes(List<String> eventTypes) {
+            this.eventTypes = eventTypes;
+        }
+    }
+
+    /**
+     * The resources and failure policy of the bulkhead of a handler.
+     * <p>
+     * Values that are not set are inherited: per-handler settings fall back to the {@code defaults} settings,
+     * which fall back to the built-in values documented on each field.
+     */
+    public static class BulkheadSettings {
+
+        /**
+         * The values used when neither the handler settings nor the default settings set them.
+         */
+        private static final BulkheadSettings BUILT_IN = new BulkheadSettings();
+
+        static {
+            BUILT_IN.workers = 1;
+            BUILT_IN.queueCapacity = 1000;
+            BUILT_IN.timeout = Duration.ofSeconds(30);
+            BUILT_IN.failureThreshold = 5;
+            BUILT_IN.openDuration = Duration.ofSeconds(30);
+            BUILT_IN.openCircuitPolicy = OpenCircuitPolicy.PARK;
+            BUILT_IN.parkedCapacity = 1000;
+        }
+
+        /**
+         * Number of threads invoking the handler, 1 by default.
+         */
+        private Integer workers;
+
+        /**
+         * Number of events waiting for a worker, beyond which new events are shed, 1000 by default.
+         */
+        private Integer queueCapacity;
+
+        /**
+         * Maximum time for a handler invocation, after which the worker is interrupted and a failure is recorded,
+         * 30 seconds by default.
+         */
+        private Duration timeout;
+
+        /**
+         * Number of consecutive failures opening the circuit of the handler, 5 by default.
+         */
+        private Integer failureThreshold;
+
+        /**
+         * Time the circuit stays open before a trial event is let through, 30 seconds by default.
+         */
+        private Duration openDuration;
+
+        /**
+         * What happens to the events of the handler while its circuit is open, {@code PARK} by default.
+         */
+        private OpenCircuitPolicy openCircuitPolicy;
+
+        /**
+         * Number of events parked while the circuit is open, beyond which the oldest ones are shed, 1000 by default.
+         */
+        private Integer parkedCapacity;
+
+        /**
+         * Returns settings taking every value that is not set here from other settings.
+         *
+         * @param fallback the settings providing the values that are not set
+         * @return the merged settings
+         */
+        public BulkheadSettings withFallback(BulkheadSettings fallback) {
+            BulkheadSettings merged = new BulkheadSettings();
+            merged.workers = workers != null ? workers : fallback.workers;
+            merged.queueCapacity = queueCapacity != null ? queueCapacity : fallback.queueCapacity;
+            merged.timeout = timeout != null ? timeout : fallback.timeout;
+            merged.failureThreshold = failureThreshold != null ? failureThreshold : fallback.failureThreshold;
+            merged.openDuration = openDuration != null ? openDuration : fallback.openDuration;
+            merged.openCircuitPolicy = openCircuitPolicy != null ? openCircuitPolicy : fallback.openCircuitPolicy;
+            merged.parkedCapacity = parkedCapacity != null ? parkedCapacity : fallback.parkedCapacity;
+            return merged;
+        }
+
+        public Integer getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(Integer workers) {
+            this.workers = workers;
+        }
+
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(Integer queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Integer getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(Integer failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public OpenCircuitPolicy getOpenCircuitPolicy() {
+            return openCircuitPolicy;
+        }
+
+        public void setOpenCircuitPolicy(OpenCircuitPolicy openCircuitPolicy) {
+            this.openCircuitPolicy = openCircuitPolicy;
+        }
+
+        public Integer getParkedCapacity() {
+            return parkedCapacity;
+        }
+
+        public void setParkedCapacity(Integer parkedCapacity) {
+            this.parkedCapacity = parkedCapacity;
+        }
+    }
+
+    /**
+     * What happens to the events classified in a priority lane while it is full.
+     */
+    public enum LaneOverflowPolicy {
+        /**
+         * The consumption of events waits for room in the lane, holding back the events of every lane in the broker.
+         */
+        BLOCK,
+        /**
+         * Events are dropped, so the consumption of the events of the other lanes goes on.
+         */
+        SHED
+    }
+
+    /**
+     * What happens to the events of a handler while its circuit is open.
+     */
+    public enum OpenCircuitPolicy {
+        /**
+         * Events are dropped.
+         */
+        SHED,
+        /**
+         * Events are kept in a bounded buffer and dispatched again once the circuit closes.
+         */
+        PARK
+    }
+
+}
@@ -0,0 +1,103 @@
+package org.alfresco.dispatch;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.alfresco.enterprise.repo.event.v1.model.EnterpriseEventData;
+import org.alfresco.event.sdk.handling.EventHandlingException;
+import org.alfresco.repo.event.databind.ObjectMapperFactory;
+import org.alfresco.repo.event.v1.model.*;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges two events for the same node into a single event describing their net effect.
+ * <p>
+ * The merged event keeps the envelope (id, type and time) of the first event and takes the resource state
+ * and Enterprise permissions of the second one. When both events are updates, the {@code resourceBefore} of the
+ * merged event holds, for every property changed by any of them, the value it had before the first update.
+ * </p>
+ * Repository events are immutable, so the merge is done on their JSON tree using the same {@link ObjectMapper}
+ * configuration as {@link org.alfresco.event.sdk.integration.transformer.EventGenericTransformer}.
+ */
+public class EventMerger {
+
+    private static final List<String> ENTERPRISE_PROPERTIES =
+            List.of("resourceReaderAuthorities", "resourceDeniedAuthorities", "resourceReaderSecurityControls");
+
+    private final ObjectMapper objectMapper = new ObjectMapperFactory().createObjectMapper();
+
+    /**
+     * Merges two events for the same node.
+     *
+     * @param first  the buffered event
+     * @param second the event received after it
+     * @return the merged event
+     */
+    public RepoEvent<DataAttributes<Resource>> merge(RepoEvent<DataAttributes<Resource>> first,
+                                                     RepoEvent<DataAttributes<Resource>> second) {
+        ObjectNode merged = objectMapper.valueToTree(first);
+        ObjectNode mergedData = (ObjectNode) merged.get("data");
+        JsonNode secondData = objectMapper.valueToTree(second).get("data");
+
+        mergedData.set("resource", secondData.get("resource"));
+        if (EventType.NODE_UPDATED.getType().equals(first.getType())) {
+            mergeResourceBefore(mergedData, secondData.get("resourceBefore"));
+        }
+        for (String property : ENTERPRISE_PROPERTIES) {
+            if (secondData.has(property)) {
+                mergedData.set(property, secondData.get(property));
+            }
+        }
+
+        try {
+            if (first.getData() instanceof EnterpriseEventData<?>) {
+                return (RepoEvent<DataAttributes<Resource>>) (RepoEvent<?>) objectMapper
+                        .readerFor(new TypeReference<RepoEvent<EnterpriseEventData<Resource>>>() {
+                        })
+                        .readValue(merged);
+            }
+            return (RepoEvent<DataAttributes<Resource>>) (RepoEvent<?>) objectMapper
+                    .readerFor(new TypeReference<RepoEvent<EventData<Resource>>>() {
+                    })
+                    .readValue(merged);
+        } catch (IOException ioException) {
+            throw new EventHandlingException("An error occurred while merging the events " + first.getId()
+                    + " and " + second.getId(), ioException);
+        }
+    }
+
+    /**
+     * Adds to the merged {@code resourceBefore} the fields only changed by the second update,
+     * as values already present come from the first update and are older.
+     */
+    private static void mergeResourceBefore(ObjectNode mergedData, JsonNode secondBefore) {
+        if (secondBefore == null || !secondBefore.isObject()) {
+            return;
+        }
+        JsonNode firstBefore = mergedData.get("resourceBefore");
+        if (firstBefore == null || !firstBefore.isObject()) {
+            mergedData.set("resourceBefore", secondBefore);
+            return;
+        }
+        mergeMissing((ObjectNode) firstBefore, secondBefore);
+    }
+
+    private static void mergeMissing(ObjectNode target, JsonNode source) {
+        Iterator<Map.Entry<String, JsonNode>> fields = source.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode existing = target.get(field.getKey());
+            if (existing == null) {
+                target.set(field.getKey(), field.getValue());
+            } else if (existing.isObject() && field.getValue().isObject()) {
+                mergeMissing((ObjectNode) existing, field.getValue());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,402 @@
+package org.alfresco.dispatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * The isolated resources of a single handler: a bounded queue, a fixed number of worker threads,
+ * an invocation timeout and a {@link CircuitBreaker}.
+ * <p>
+ * Events submitted while the queue is full are shed. Events submitted while the circuit is open are shed or parked,
+ * depending on the {@link EventDispatchProperties.OpenCircuitPolicy}. When the circuit opens, the events waiting
+ * in the queue are shed or parked too, ahead of the events parked later, so the failing handler is not invoked
+ * for the backlog and the trial does not wait behind it. Once the circuit has been open for the open duration,
+ * the oldest parked event is submitted as the trial, without waiting for a new event; when the circuit closes,
+ * the parked events are submitted before any new event, so the handler receives them in order.
+ * </p>
+ * <p>
+ * Timeouts are recorded by the watchdog as soon as they occur, even if the handler ignores the interruption.
+ * </p>
+ * The following metrics are registered, tagged with the handler name:
+ * <ul>
+ *     <li>{@code alfresco.events.handler.queue.depth}: events waiting for a worker</li>
+ *     <li>{@code alfresco.events.handler.parked}: events parked while the circuit is open</li>
+ *     <li>{@code alfresco.events.handler.circuit.open}: 1 while the circuit is not closed, 0 otherwise</li>
+ *     <li>{@code alfresco.events.handler.queue.wait}: time spent by events in the queue</li>
+ *     <li>{@code alfresco.events.handler.latency}: duration of the handler invocations, tagged with the outcome</li>
+ *     <li>{@code alfresco.events.handler.shed}: events dropped, tagged with the reason</li>
+ * </ul>
+ */
+public class HandlerBulkhead implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HandlerBulkhead.class);
+
+    /**
+     * Delay before submitting parked events again when the queue of the handler is full.
+     */
+    private static final Duration PARKED_RETRY_DELAY = Duration.ofMillis(100);
+
+    private final String handlerName;
+    private final Consumer<RepoEvent<DataAttributes<Resource>>> handler;
+    private final EventDispatchProperties.BulkheadSettings settings;
+    private final ScheduledExecutorService watchdog;
+    private final CircuitBreaker circuitBreaker;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor workers;
+    private final Deque<RepoEvent<DataAttributes<Resource>>> parked = new ArrayDeque<>();
+
+    private volatile long shutdownAt;
+
+    private final Timer queueWait;
+    private final Timer successLatency;
+    private final Timer errorLatency;
+    private final Timer timeoutLatency;
+    private final Counter queueFullShed;
+    private final Counter circuitOpenShed;
+    private final Counter parkedOverflowShed;
+
+    /**
+     * Creates the bulkhead of a handler and starts its workers.
+     *
+     * @param handlerName   the name of the handler, used in thread names, logs and metrics
+     * @param handler       the invocation of the handler
+     * @param settings      the resources and failure policy of the bulkhead
+     * @param watchdog      the scheduler interrupting the invocations exceeding the timeout
+     * @param meterRegistry the registry of the metrics
+     */
+    public HandlerBulkhead(String handlerName, Consumer<RepoEvent<DataAttributes<Resource>>> handler,
+                           EventDispatchProperties.BulkheadSettings settings, ScheduledExecutorService watchdog,
+                           MeterRegistry meterRegistry) {
+        this.handlerName = handlerName;
+        this.handler = handler;
+        this.settings = settings;
+        this.watchdog = watchdog;
+        this.circuitBreaker = new CircuitBreaker(settings.getFailureThreshold(), settings.getOpenDuration());
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        this.workers = new ThreadPoolExecutor(settings.getWorkers(), settings.getWorkers(), 0L, TimeUnit.MILLISECONDS,
+                queue, new CustomizableThreadFactory("handler-" + handlerName + "-"), new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("alfresco.events.handler.queue.depth", queue, BlockingQueue::size)
+                .tag("handler", handlerName).register(meterRegistry);
+        Gauge.builder("alfresco.events.handler.parked", this, HandlerBulkhead::parkedCount)
+                .tag("handler", handlerName).register(meterRegistry);
+        Gauge.builder("alfresco.events.handler.circuit.open", circuitBreaker,
+                        breaker -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .tag("handler", handlerName).register(meterRegistry);
+        this.queueWait = Timer.builder("alfresco.events.handler.queue.wait")
+                .tag("handler", handlerName).register(meterRegistry);
+        this.successLatency = latencyTimer(meterRegistry, "success");
+        this.errorLatency = latencyTimer(meterRegistry, "error");
+        this.timeoutLatency = latencyTimer(meterRegistry, "timeout");
+        this.queueFullShed = shedCounter(meterRegistry, "queue-full");
+        this.circuitOpenShed = shedCounter(meterRegistry, "circuit-open");
+        this.parkedOverflowShed = shedCounter(meterRegistry, "parked-overflow");
+    }
+
+    /**
+     * Submits an event to the handler without blocking the caller.
+     *
+     * @param event the event accepted by the filter of the handler
+     */
+    public synchronized void submit(RepoEvent<DataAttributes<Resource>> event) {
+        if (!parked.isEmpty()) {
+            // Parked events are delivered first, so events keep their order
+            park(event);
+            return;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            if (settings.getOpenCircuitPolicy() == EventDispatchProperties.OpenCircuitPolicy.PARK) {
+                park(event);
+            } else {
+                circuitOpenShed.increment();
+                LOGGER.debug("Circuit of handler {} is open, event {} has been shed", handlerName, event.getId());
+            }
+            return;
+        }
+        if (!execute(event, circuitBreaker.getState() != CircuitBreaker.State.CLOSED)) {
+            if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED
+                    && settings.getOpenCircuitPolicy() == EventDispatchProperties.OpenCircuitPolicy.PARK) {
+                // The trial could not be queued: it is parked and retried by the watchdog
+                park(event);
+                schedule(this::trialParked, settings.getOpenDuration());
+                return;
+            }
+            queueFullShed.increment();
+            LOGGER.warn("Queue of handler {} is full, event {} has been shed", handlerName, event.getId());
+        }
+    }
+
+    /**
+     * Returns the circuit breaker of the handler.
+     *
+     * @return the circuit breaker
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Returns the number of events waiting for a worker.
+     *
+     * @return the queue depth
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the number of events parked while the circuit is open.
+     *
+     * @return the number of parked events
+     */
+    public synchronized int parkedCount() {
+        return parked.size();
+    }
+
+    private void run(RepoEvent<DataAttributes<Resource>> event, long enqueuedAt, boolean trial) {
+        long startedAt = System.nanoTime();
+        queueWait.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+        if (!trial && divertIfOpen(event)) {
+            return;
+        }
+
+        FutureTask<Void> invocation = new FutureTask<>(() -> handler.accept(event), null);
+        ScheduledFuture<?> timeout = watchdog.schedule(() -> onTimeout(invocation, event, startedAt),
+                settings.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        invocation.run();
+        timeout.cancel(false);
+        // Clear the interruption of a cancelled invocation, so it does not leak into the next event
+        Thread.interrupted();
+
+        if (invocation.isCancelled()) {
+            // The timeout has already been recorded by the watchdog, the handler only returned now
+            LOGGER.debug("Handler {} returned after timing out processing event {}", handlerName, event.getId());
+            return;
+        }
+        long duration = System.nanoTime() - startedAt;
+        try {
+            invocation.get();
+            successLatency.record(duration, TimeUnit.NANOSECONDS);
+            if (circuitBreaker.onSuccess()) {
+                LOGGER.info("Circuit of handler {} is closed", handlerName);
+                resubmitParked();
+            }
+        } catch (ExecutionException failure) {
+            errorLatency.record(duration, TimeUnit.NANOSECONDS);
+            LOGGER.error("Handler {} failed processing event {}", handlerName, event.getId(), failure.getCause());
+            onFailure();
+        } catch (InterruptedException interrupted) {
+            // The invocation is complete, so get() does not wait and cannot be interrupted
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs on the watchdog when an invocation exceeds the timeout. The failure is recorded right away, as the worker
+     * may stay blocked long after the interruption, e.g. in a call to an external service that ignores interruptions.
+     */
+    private void onTimeout(FutureTask<Void> invocation, RepoEvent<DataAttributes<Resource>> event, long startedAt) {
+        if (invocation.cancel(true)) {
+            timeoutLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            LOGGER.warn("Handler {} timed out after {} processing event {}", handlerName, settings.getTimeout(), event.getId());
+            onFailure();
+        }
+    }
+
+    private boolean execute(RepoEvent<DataAttributes<Resource>> event, boolean trial) {
+        try {
+            workers.execute(new Invocation(event, System.nanoTime(), trial));
+            return true;
+        } catch (RejectedExecutionException rejected) {
+            return false;
+        }
+    }
+
+    /**
+     * Records a failure. When it opens the circuit, the events waiting in the queue are removed from it, under the lock
+     * of the bulkhead so that an event taken by a worker in the meantime is diverted ahead of them.
+     */
+    private synchronized void onFailure() {
+        if (circuitBreaker.onFailure()) {
+            boolean park = settings.getOpenCircuitPolicy() == EventDispatchProperties.OpenCircuitPolicy.PARK;
+            List<Runnable> backlog = new ArrayList<>();
+            queue.drainTo(backlog);
+            LOGGER.warn("Circuit of handler {} is open, {} queued events and the events received for {} will be {}",
+                    handlerName, backlog.size(), settings.getOpenDuration(), park ? "parked" : "shed");
+            // Queued events are older than the parked ones
+            for (int i = backlog.size() - 1; i >= 0; i--) {
+                divert(((Invocation) backlog.get(i)).event);
+            }
+            if (park) {
+                schedule(this::trialParked, settings.getOpenDuration());
+            }
+        }
+    }
+
+    /**
+     * Diverts an event taken from the queue by a worker while the circuit is not closed.
+     *
+     * @return {@code true} if the event has been parked or shed instead of being passed to the handler
+     */
+    private synchronized boolean divertIfOpen(RepoEvent<DataAttributes<Resource>> event) {
+        if (circuitBreaker.getState() == CircuitBreaker.State.CLOSED) {
+            return false;
+        }
+        divert(event);
+        return true;
+    }
+
+    /**
+     * Parks an event that was queued before the circuit opened ahead of the parked events, or sheds it.
+     */
+    private void divert(RepoEvent<DataAttributes<Resource>> event) {
+        if (settings.getOpenCircuitPolicy() == EventDispatchProperties.OpenCircuitPolicy.SHED) {
+            circuitOpenShed.increment();
+            LOGGER.debug("Circuit of handler {} is open, queued event {} has been shed", handlerName, event.getId());
+        } else if (parked.size() >= settings.getParkedCapacity()) {
+            // The event is older than every parked event
+            parkedOverflowShed.increment();
+        } else {
+            parked.addFirst(event);
+        }
+    }
+
+    private synchronized void park(RepoEvent<DataAttributes<Resource>> event) {
+        if (parked.size() >= settings.getParkedCapacity()) {
+            parked.pollFirst();
+            parkedOverflowShed.increment();
+        }
+        parked.addLast(event);
+    }
+
+    /**
+     * Runs on the watchdog once the circuit has been open for the open duration, so parked events are retried
+     * even when no new event is received: the oldest parked event is the trial.
+     */
+    private synchronized void trialParked() {
+        RepoEvent<DataAttributes<Resource>> head = parked.peekFirst();
+        if (head == null) {
+            return;
+        }
+        if (circuitBreaker.getState() == CircuitBreaker.State.CLOSED) {
+            resubmitParked();
+        } else if (circuitBreaker.tryAcquire() && execute(head, true)) {
+            parked.pollFirst();
+        } else {
+            // A trial is still running, or the queue is full: try again later
+            schedule(this::trialParked, settings.getOpenDuration());
+        }
+    }
+
+    /**
+     * Submits the parked events, oldest first, while the circuit stays closed. New events are parked behind them
+     * until they have all been submitted.
+     */
+    private synchronized void resubmitParked() {
+        while (circuitBreaker.getState() == CircuitBreaker.State.CLOSED && !parked.isEmpty()) {
+            if (!execute(parked.peekFirst(), false)) {
+                schedule(this::resubmitParked, PARKED_RETRY_DELAY);
+                return;
+            }
+            parked.pollFirst();
+        }
+    }
+
+    private void schedule(Runnable task, Duration delay) {
+        try {
+            watchdog.schedule(task, delay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException stopped) {
+            LOGGER.warn("Bulkhead of handler {} is stopped, {} parked events will not be delivered", handlerName, parkedCount());
+        }
+    }
+
+    private Timer latencyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("alfresco.events.handler.latency")
+                .tag("handler", handlerName)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    private Counter shedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("alfresco.events.handler.shed")
+                .tag("handler", handlerName)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A queued invocation of the handler.
+     */
+    private final class Invocation implements Runnable {
+
+        private final RepoEvent<DataAttributes<Resource>> event;
+        private final long enqueuedAt;
+        private final boolean trial;
+
+        private Invocation(RepoEvent<DataAttributes<Resource>> event, long enqueuedAt, boolean trial) {
+            this.event = event;
+            this.enqueuedAt = enqueuedAt;
+            this.trial = trial;
+        }
+
+        @Override
+        public void run() {
+            HandlerBulkhead.this.run(event, enqueuedAt, trial);
+        }
+    }
+
+    /**
+     * Stops accepting events and lets the workers complete the events already queued, without waiting for them.
+     * Parked events are not delivered.
+     */
+    public synchronized void shutdown() {
+        shutdownAt = System.nanoTime();
+        workers.shutdown();
+        if (!parked.isEmpty()) {
+            LOGGER.warn("Bulkhead of handler {} is stopping, {} parked events will not be delivered", handlerName, parked.size());
+        }
+    }
+
+    /**
+     * Waits for the workers to complete the events already queued, for up to the invocation timeout since
+     * {@link #shutdown()}, and interrupts them afterwards.
+     */
+    public void awaitTermination() {
+        long remaining = settings.getTimeout().toNanos() - (System.nanoTime() - shutdownAt);
+        try {
+            if (!workers.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException interrupted) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops the workers, letting them complete the events already queued.
+     */
+    @Override
+    public void close() {
+        shutdown();
+        awaitTermination();
+    }
+
+}
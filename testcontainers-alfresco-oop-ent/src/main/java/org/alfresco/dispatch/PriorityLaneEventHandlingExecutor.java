@@ -0,0 +1,283 @@
+package org.alfresco.dispatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.alfresco.event.sdk.handling.EventHandlingException;
+import org.alfresco.event.sdk.handling.EventHandlingExecutor;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.NodeResource;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An executor classifying events by type into priority lanes, and passing them to another executor
+ * with weighted fair scheduling, so a flood of low priority events does not delay high priority ones.
+ * <p>
+ * Events are classified on the thread consuming them, right after {@link org.alfresco.event.sdk.integration.transformer.EventGenericTransformer},
+ * and queued to the bounded queue of their lane. When the queue of a lane is full, the consuming thread waits,
+ * unless the lane sheds its events when full ({@link EventDispatchProperties.LaneOverflowPolicy#SHED}): waiting
+ * on a lane keeps the following events, of every priority, in the broker, so the lane receiving a flood should shed
+ * rather than hold back the high priority events behind it.
+ * A single dispatcher thread takes events from the non-empty lanes using smooth weighted round-robin: a lane
+ * with weight 8 is served 8 times for every time a lane with weight 1 is served, and the turns are interleaved.
+ * </p>
+ * <p>
+ * Events keep their order within a lane, but not across lanes. So that the events of a node are still dispatched
+ * in order, an event is queued to the lane of the previous event of its node while that event is waiting, whatever
+ * its type: the {@code Updated} events following a {@code Created} event in the high lane follow it in that lane,
+ * and a {@code Deleted} event queued behind an {@code Updated} event in the low lane waits behind it.
+ * Events of other types, or of nodes without waiting events, are classified by type. An event queued to a lane
+ * because of its node is never shed: the consuming thread waits for room in the lane instead.
+ * </p>
+ * <p>
+ * Lanes only order the events passed to the other executor. When bulkheads are enabled, the
+ * {@link BulkheadEventHandlingExecutor} queues the events to the handlers without waiting, so the lanes never hold
+ * events for long and have no effect: the bulkheads already keep a slow handler from delaying the others.
+ * </p>
+ * The following metrics are registered, tagged with the lane name:
+ * <ul>
+ *     <li>{@code alfresco.events.lane.depth}: events waiting in the lane</li>
+ *     <li>{@code alfresco.events.lane.wait}: time spent by events in the lane</li>
+ *     <li>{@code alfresco.events.lane.shed}: events dropped because the lane was full</li>
+ * </ul>
+ */
+public class PriorityLaneEventHandlingExecutor implements EventHandlingExecutor, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PriorityLaneEventHandlingExecutor.class);
+
+    private final EventHandlingExecutor delegate;
+    private final List<Lane> lanes = new ArrayList<>();
+    private final Map<String, Lane> lanesByEventType = new HashMap<>();
+    private final Lane defaultLane;
+    // Guarded by itself, lane of the waiting events of every node
+    private final Map<String, NodeLane> nodeLanes = new HashMap<>();
+    private final Semaphore queuedEvents = new Semaphore(0);
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    /**
+     * Creates the executor and starts its dispatcher thread.
+     *
+     * @param delegate      the executor receiving the events by priority
+     * @param properties    the lanes configuration
+     * @param meterRegistry the registry of the lane metrics
+     */
+    public PriorityLaneEventHandlingExecutor(EventHandlingExecutor delegate, EventDispatchProperties.Priority properties,
+                                             MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        properties.getLanes().forEach((name, settings) -> {
+            Lane lane = new Lane(name, settings.getWeight(), settings.getCapacity(), settings.getOverflowPolicy(), meterRegistry);
+            lanes.add(lane);
+            settings.getEventTypes().forEach(eventType -> lanesByEventType.put(eventType, lane));
+        });
+        this.defaultLane = lanes.stream()
+                .filter(lane -> lane.name.equalsIgnoreCase(properties.getDefaultLane()))
+                .findFirst()
+                .orElseGet(() -> {
+                    Lane lane = new Lane(properties.getDefaultLane(), 1, EventDispatchProperties.LaneSettings.DEFAULT_CAPACITY,
+                            EventDispatchProperties.LaneOverflowPolicy.BLOCK, meterRegistry);
+                    lanes.add(lane);
+                    return lane;
+                });
+        this.dispatcher = new Thread(this::dispatch, "event-lanes-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    @Override
+    public void executeEventHandlers(RepoEvent<DataAttributes<Resource>> event) {
+        String nodeId = nodeId(event);
+        Lane typeLane = laneOf(event.getType());
+        Lane lane = queuingLaneOf(nodeId, typeLane);
+        Queued queued = new Queued(event, nodeId, System.nanoTime());
+        if (lane == typeLane && lane.overflowPolicy == EventDispatchProperties.LaneOverflowPolicy.SHED) {
+            if (!lane.queue.offer(queued)) {
+                dequeued(nodeId);
+                lane.shed.increment();
+                LOGGER.debug("Lane {} is full, event {} has been shed", lane.name, event.getId());
+                return;
+            }
+            queuedEvents.release();
+            return;
+        }
+        try {
+            lane.queue.put(queued);
+        } catch (InterruptedException interrupted) {
+            dequeued(nodeId);
+            Thread.currentThread().interrupt();
+            throw new EventHandlingException("Interrupted while queuing the event " + event.getId() + " in lane " + lane.name, interrupted);
+        }
+        queuedEvents.release();
+    }
+
+    /**
+     * Returns the name of the lane of an event type.
+     *
+     * @param eventType the event type, e.g. {@code org.alfresco.event.node.Created}
+     * @return the name of the lane
+     */
+    public String laneNameOf(String eventType) {
+        return laneOf(eventType).name;
+    }
+
+    private Lane laneOf(String eventType) {
+        return lanesByEventType.getOrDefault(eventType, defaultLane);
+    }
+
+    /**
+     * Returns the lane of the waiting events of a node, or the lane of its type if the node has none,
+     * and counts the event as waiting in that lane.
+     */
+    private Lane queuingLaneOf(String nodeId, Lane typeLane) {
+        if (nodeId == null) {
+            return typeLane;
+        }
+        synchronized (nodeLanes) {
+            NodeLane nodeLane = nodeLanes.computeIfAbsent(nodeId, key -> new NodeLane(typeLane));
+            nodeLane.waiting++;
+            return nodeLane.lane;
+        }
+    }
+
+    private void dequeued(String nodeId) {
+        if (nodeId == null) {
+            return;
+        }
+        synchronized (nodeLanes) {
+            NodeLane nodeLane = nodeLanes.get(nodeId);
+            if (--nodeLane.waiting == 0) {
+                nodeLanes.remove(nodeId);
+            }
+        }
+    }
+
+    private static String nodeId(RepoEvent<DataAttributes<Resource>> event) {
+        if (event.getData() != null && event.getData().getResource() instanceof NodeResource nodeResource) {
+            return nodeResource.getId();
+        }
+        return null;
+    }
+
+    private void dispatch() {
+        while (running || queuedEvents.availablePermits() > 0) {
+            try {
+                if (!queuedEvents.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+            } catch (InterruptedException interrupted) {
+                continue;
+            }
+            Queued queued = next().queue.poll();
+            // The dispatcher passes events on one at a time, so the next event of the node cannot overtake this one
+            dequeued(queued.nodeId());
+            try {
+                delegate.executeEventHandlers(queued.event());
+            } catch (RuntimeException exception) {
+                LOGGER.error("An error occurred while dispatching the event {}", queued.event().getId(), exception);
+            }
+        }
+    }
+
+    /**
+     * Selects the lane to serve with smooth weighted round-robin among the lanes having events.
+     * A permit of {@link #queuedEvents} has been acquired, so at least one lane has an event.
+     */
+    private Lane next() {
+        Lane selected = null;
+        int totalWeight = 0;
+        for (Lane lane : lanes) {
+            if (lane.queue.isEmpty()) {
+                // An idle lane does not accumulate turns to spend in a burst when it receives events again
+                lane.currentWeight = 0;
+                continue;
+            }
+            lane.currentWeight += lane.weight;
+            totalWeight += lane.weight;
+            if (selected == null || lane.currentWeight > selected.currentWeight) {
+                selected = lane;
+            }
+        }
+        selected.currentWeight -= totalWeight;
+        selected.recordWait();
+        return selected;
+    }
+
+    /**
+     * Stops the dispatcher once the queued events have been passed on, and closes the executor receiving them.
+     *
+     * @throws Exception if the delegate executor cannot be closed
+     */
+    @Override
+    public void close() throws Exception {
+        running = false;
+        dispatcher.join(TimeUnit.SECONDS.toMillis(30));
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private record Queued(RepoEvent<DataAttributes<Resource>> event, String nodeId, long queuedAt) {
+    }
+
+    /**
+     * The lane of the waiting events of a node.
+     */
+    private static final class NodeLane {
+
+        private final Lane lane;
+        private int waiting;
+
+        private NodeLane(Lane lane) {
+            this.lane = lane;
+        }
+    }
+
+    /**
+     * A priority lane, only accessed by the dispatcher thread apart from its queue.
+     */
+    private static final class Lane {
+
+        private final String name;
+        private final int weight;
+        private final BlockingQueue<Queued> queue;
+        private final EventDispatchProperties.LaneOverflowPolicy overflowPolicy;
+        private final Timer wait;
+        private final Counter shed;
+        private int currentWeight;
+
+        private Lane(String name, int weight, int capacity, EventDispatchProperties.LaneOverflowPolicy overflowPolicy,
+                     MeterRegistry meterRegistry) {
+            this.name = name;
+            this.weight = weight;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.overflowPolicy = overflowPolicy;
+            Gauge.builder("alfresco.events.lane.depth", queue, BlockingQueue::size)
+                    .tag("lane", name).register(meterRegistry);
+            this.wait = Timer.builder("alfresco.events.lane.wait")
+                    .tag("lane", name)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            this.shed = Counter.builder("alfresco.events.lane.shed")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+        }
+
+        private void recordWait() {
+            Queued head = queue.peek();
+            if (head != null) {
+                wait.record(System.nanoTime() - head.queuedAt(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+}
@@ -1,10 +1,12 @@
 package org.alfresco.event.sdk.integration.transformer;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.alfresco.enterprise.repo.event.v1.model.EnterpriseEventData;
 import org.alfresco.event.sdk.handling.EventHandlingException;
+import org.alfresco.jfr.TransformEvent;
+import org.alfresco.payload.OversizedEvent;
+import org.alfresco.payload.PayloadGuard;
 import org.alfresco.repo.event.databind.ObjectMapperFactory;
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.EventData;
@@ -14,6 +16,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.integration.core.GenericTransformer;
 
+import java.io.IOException;
+
 /**
  * A transformer that converts a JSON string representation of an event into a {@link RepoEvent} object.
  * This transformer handles both standard Alfresco events and Alfresco Enterprise events.
@@ -21,6 +25,12 @@ import org.springframework.integration.core.GenericTransformer;
  * If the JSON contains the {@link #ONLY_ENTERPRISE_PROPERTY}, it is treated as an Enterprise event.
  * Otherwise, it is treated as a standard event.
  * </p>
+ * <p>
+ * Every transformation emits a {@link TransformEvent} when Java Flight Recorder is enabled.
+ * </p>
+ * <p>
+ * The size of the messages is limited by a {@link PayloadGuard}, so oversized messages do not exhaust the memory.
+ * </p>
  *
  * This class was created as a patch for handling events in a specific Alfresco issue (MNT-24580).
  */
@@ -39,34 +49,110 @@ public class EventGenericTransformer implements GenericTransformer<String, RepoE
      */
     private final ObjectMapper objectMapper = new ObjectMapperFactory().createObjectMapper();
 
+    /**
+     * The size limits of the JSON messages, or {@code null} to use the guard installed for the application.
+     */
+    private final PayloadGuard payloadGuard;
+
+    /**
+     * Creates a transformer applying the {@link PayloadGuard#current() installed} size limits.
+     */
+    public EventGenericTransformer() {
+        this(null);
+    }
+
+    /**
+     * Creates a transformer applying the given size limits.
+     *
+     * @param payloadGuard the size limits of the JSON messages
+     */
+    public EventGenericTransformer(final PayloadGuard payloadGuard) {
+        this.payloadGuard = payloadGuard;
+    }
+
     /**
      * Transforms a JSON string into a {@link RepoEvent} object. The transformation logic distinguishes
      * between standard and Enterprise events based on the presence of the {@link #ONLY_ENTERPRISE_PROPERTY}.
+     * <p>
+     * Messages over the soft limit of the {@link PayloadGuard} are deserialized in truncating mode, and messages
+     * over its hard limit are passed to the {@link org.alfresco.payload.OversizedEventSink} instead of being deserialized.
+     * Only an excerpt of the message is logged.
+     * </p>
      *
      * @param eventJSON the JSON string representing the event.
      * @return the deserialized {@link RepoEvent} object.
-     * @throws EventHandlingException if an error occurs during JSON processing.
+     * @throws EventHandlingException if an error occurs during JSON processing, or if the message exceeds the hard limit.
      */
     @Override
     public RepoEvent<DataAttributes<Resource>> transform(final String eventJSON) {
-        LOGGER.debug("Transforming JSON event: {}", eventJSON);
+        final PayloadGuard guard = payloadGuard != null ? payloadGuard : PayloadGuard.current();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Transforming JSON event: {}", guard.excerpt(eventJSON));
+        }
+        final TransformEvent transformEvent = new TransformEvent();
+        transformEvent.begin();
+        RepoEvent<DataAttributes<Resource>> repoEvent = null;
+        final PayloadGuard.Mode mode = guard.modeOf(eventJSON);
+        // Determine if the event is an Enterprise event by checking for a specific property
+        boolean enterpriseEvent = mode != PayloadGuard.Mode.REJECTED && eventJSON.contains(ONLY_ENTERPRISE_PROPERTY);
         try {
-            // Determine if the event is an Enterprise event by checking for a specific property
-            boolean enterpriseEvent = eventJSON.contains(ONLY_ENTERPRISE_PROPERTY);
-
+            if (mode == PayloadGuard.Mode.REJECTED) {
+                OversizedEvent oversizedEvent = guard.reject(objectMapper, eventJSON);
+                throw new EventHandlingException("The JSON event " + oversizedEvent.id() + " of " + eventJSON.length()
+                        + " characters exceeds the hard limit");
+            }
             // Deserialize JSON to the appropriate event type based on whether it's an Enterprise event
             if (enterpriseEvent) {
-                return (RepoEvent<DataAttributes<Resource>>) (RepoEvent<?>)
-                        objectMapper.readValue(eventJSON, new TypeReference<RepoEvent<EnterpriseEventData<Resource>>>() {
+                repoEvent = (RepoEvent<DataAttributes<Resource>>) (RepoEvent<?>)
+                        read(guard, mode, eventJSON, new TypeReference<RepoEvent<EnterpriseEventData<Resource>>>() {
                         });
             } else {
-                return (RepoEvent<DataAttributes<Resource>>) (RepoEvent<?>)
-                        objectMapper.readValue(eventJSON, new TypeReference<RepoEvent<EventData<Resource>>>() {
+                repoEvent = (RepoEvent<DataAttributes<Resource>>) (RepoEvent<?>)
+                        read(guard, mode, eventJSON, new TypeReference<RepoEvent<EventData<Resource>>>() {
                         });
             }
-        } catch (final JsonProcessingException excp) {
-            LOGGER.error("An error occurred while transforming the JSON event: {}", eventJSON, excp);
+            if (mode == PayloadGuard.Mode.TRUNCATED) {
+                LOGGER.warn("The JSON event {} of {} characters exceeds the soft limit and has been truncated",
+                        repoEvent.getId(), eventJSON.length());
+            }
+            return repoEvent;
+        } catch (final IOException excp) {
+            LOGGER.error("An error occurred while transforming the JSON event: {}", guard.excerpt(eventJSON), excp);
             throw new EventHandlingException("An error occurred while transforming the JSON event", excp);
+        } finally {
+            commit(transformEvent, enterpriseEvent, eventJSON.length(), mode, repoEvent);
+        }
+    }
+
+    /**
+     * Deserializes a message, streaming it in truncating mode when it exceeds the soft limit.
+     */
+    private <T> T read(final PayloadGuard guard, final PayloadGuard.Mode mode, final String eventJSON,
+                       final TypeReference<T> type) throws IOException {
+        return mode == PayloadGuard.Mode.TRUNCATED
+                ? guard.readTruncated(objectMapper, eventJSON, type)
+                : objectMapper.readValue(eventJSON, type);
+    }
+
+    /**
+     * Commits the Flight Recorder event of a transformation, when it is enabled and above the configured threshold.
+     *
+     * @param transformEvent  the event started before the transformation
+     * @param enterpriseEvent whether the message was deserialized as an Enterprise event
+     * @param payloadLength   the length of the JSON message, in characters
+     * @param mode            how the message was deserialized depending on its length
+     * @param repoEvent       the transformed event, or {@code null} if the transformation failed
+     */
+    private static void commit(final TransformEvent transformEvent, final boolean enterpriseEvent, final int payloadLength,
+                               final PayloadGuard.Mode mode, final RepoEvent<DataAttributes<Resource>> repoEvent) {
+        transformEvent.end();
+        if (transformEvent.shouldCommit()) {
+            transformEvent.enterprise = enterpriseEvent;
+            transformEvent.payloadLength = payloadLength;
+            transformEvent.payloadMode = mode.name();
+            transformEvent.succeeded = repoEvent != null;
+            transformEvent.eventType = repoEvent != null ? repoEvent.getType() : null;
+            transformEvent.commit();
         }
     }
 }
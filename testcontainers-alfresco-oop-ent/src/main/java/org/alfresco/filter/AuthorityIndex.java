@@ -0,0 +1,137 @@
+package org.alfresco.filter;
+
+import org.alfresco.enterprise.repo.event.v1.model.EnterpriseEventData;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.springframework.stereotype.Component;
+
+import java.lang.ref.WeakReference;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A dictionary that assigns dense integer ids to Alfresco authorities (users and groups), so that
+ * sets of authorities can be represented as {@link BitSet} instances and compared word by word.
+ * <p>
+ * Authorities are only added to the dictionary when a {@link PermissionFilter} is built for them.
+ * Authorities received in events are looked up but never registered, as an authority that is not
+ * part of any filter can never produce a match. This keeps the dictionary bounded by the configured
+ * tenants instead of growing with the repository.
+ * </p>
+ * The encoding of the reader and denied authorities of an event is cached per thread, so an event
+ * evaluated by several filters in a row is only encoded once. The cache references the event weakly,
+ * so a large payload is not retained by an idle consumer thread once it has been dispatched.
+ */
+@Component
+public class AuthorityIndex {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    private final ThreadLocal<LastEncoded> lastEncoded = new ThreadLocal<>();
+
+    /**
+     * Registers the given authority, assigning it the next free id if it was not known yet.
+     *
+     * @param authority the authority name, e.g. {@code GROUP_EVERYONE}
+     * @return the id assigned to the authority
+     */
+    public int register(String authority) {
+        return ids.computeIfAbsent(authority, key -> nextId.getAndIncrement());
+    }
+
+    /**
+     * Registers all the given authorities and returns them as a bitset.
+     *
+     * @param authorities the authority names
+     * @return a bitset with the ids of the given authorities
+     */
+    public BitSet register(Collection<String> authorities) {
+        BitSet bits = new BitSet();
+        for (String authority : authorities) {
+            bits.set(register(authority));
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the id of a known authority.
+     *
+     * @param authority the authority name
+     * @return the id of the authority, or {@code -1} if the authority has not been registered
+     */
+    public int idOf(String authority) {
+        Integer id = ids.get(authority);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the number of registered authorities.
+     *
+     * @return the size of the dictionary
+     */
+    public int size() {
+        return nextId.get();
+    }
+
+    /**
+     * Encodes the given authorities as a bitset, ignoring authorities that have not been registered.
+     *
+     * @param authorities the authority names, may be {@code null}
+     * @return a bitset with the ids of the known authorities
+     */
+    public BitSet encode(Collection<String> authorities) {
+        BitSet bits = new BitSet(nextId.get());
+        if (authorities != null) {
+            for (String authority : authorities) {
+                int id = idOf(authority);
+                if (id >= 0) {
+                    bits.set(id);
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Encodes the permissions carried by an Enterprise event. The result for the last event seen by the
+     * current thread is reused as long as no authority has been registered in the meantime. The cache is keyed
+     * by event instance and not by event id, as ids may be missing and merged events keep the id of the first event.
+     *
+     * @param event the event to encode
+     * @return the encoded authorities, or {@code null} if the event does not carry Enterprise permissions
+     */
+    public EncodedAuthorities encode(RepoEvent<DataAttributes<Resource>> event) {
+        if (!(event.getData() instanceof EnterpriseEventData<?> enterpriseEventData)) {
+            return null;
+        }
+        int dictionarySize = nextId.get();
+        LastEncoded cached = lastEncoded.get();
+        if (cached != null && cached.event().get() == event && cached.encoded().dictionarySize() == dictionarySize) {
+            return cached.encoded();
+        }
+        BitSet readable = encode(enterpriseEventData.getResourceReaderAuthorities());
+        readable.andNot(encode(enterpriseEventData.getResourceDeniedAuthorities()));
+        EncodedAuthorities encoded = new EncodedAuthorities(dictionarySize, readable);
+        lastEncoded.set(new LastEncoded(new WeakReference<>(event), encoded));
+        return encoded;
+    }
+
+    /**
+     * The permissions of an event encoded against the dictionary.
+     *
+     * @param dictionarySize the size of the dictionary when the event was encoded
+     * @param readable       the ids of the reader authorities that are not denied
+     */
+    public record EncodedAuthorities(int dictionarySize, BitSet readable) {
+    }
+
+    private record LastEncoded(WeakReference<RepoEvent<?>> event, EncodedAuthorities encoded) {
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.alfresco.filter;
+
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An {@link EventFilter} that accepts Enterprise events whose resource can be read by at least one
+ * of the authorities of a tenant.
+ * <p>
+ * The tenant authorities are compiled into a bitset against the {@link AuthorityIndex} when the filter is built,
+ * so testing an event is a word-wise AND between that bitset and the reader authorities of the event,
+ * once the denied authorities have been removed from them.
+ * </p>
+ * Events that do not carry Enterprise permissions are never accepted.
+ * Note that Alfresco expresses public content with the {@code GROUP_EVERYONE} reader authority,
+ * so it has to be part of the tenant authorities when such content is expected to be routed.
+ */
+public final class PermissionFilter implements EventFilter {
+
+    private final AuthorityIndex authorityIndex;
+
+    private final BitSet tenantAuthorities;
+
+    private PermissionFilter(AuthorityIndex authorityIndex, BitSet tenantAuthorities) {
+        this.authorityIndex = authorityIndex;
+        this.tenantAuthorities = tenantAuthorities;
+    }
+
+    /**
+     * Creates a filter for a tenant, registering its authorities in the index.
+     *
+     * @param authorityIndex    the index shared by all the permission filters
+     * @param tenantAuthorities the authorities (users and groups) belonging to the tenant
+     * @return a filter accepting the events readable by the tenant
+     */
+    public static PermissionFilter of(AuthorityIndex authorityIndex, Collection<String> tenantAuthorities) {
+        return new PermissionFilter(authorityIndex, authorityIndex.register(tenantAuthorities));
+    }
+
+    /**
+     * Creates a filter for a tenant, registering its authorities in the index.
+     *
+     * @param authorityIndex    the index shared by all the permission filters
+     * @param tenantAuthorities the authorities (users and groups) belonging to the tenant
+     * @return a filter accepting the events readable by the tenant
+     */
+    public static PermissionFilter of(AuthorityIndex authorityIndex, String... tenantAuthorities) {
+        return of(authorityIndex, List.of(tenantAuthorities));
+    }
+
+    @Override
+    public boolean test(RepoEvent<DataAttributes<Resource>> event) {
+        AuthorityIndex.EncodedAuthorities encoded = authorityIndex.encode(event);
+        return encoded != null && encoded.readable().intersects(tenantAuthorities);
+    }
+
+}
@@ -0,0 +1,26 @@
+package org.alfresco.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted for every evaluation of the filter of a handler.
+ */
+@Name(FilterEvent.NAME)
+@Label("Event Filter")
+@Category({"Alfresco", "Event Pipeline"})
+@Description("Evaluation of the event filter of a handler")
+@StackTrace(false)
+public class FilterEvent extends Event {
+
+    public static final String NAME = "org.alfresco.events.Filter";
+
+    @Label("Handler")
+    public String handler;
+
+    @Label("Event Type")
+    public String eventType;
+
+    @Label("Accepted")
+    public boolean accepted;
+
+}
@@ -0,0 +1,29 @@
+package org.alfresco.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted for every invocation of {@code handleEvent} on a handler.
+ */
+@Name(HandlerEvent.NAME)
+@Label("Event Handler")
+@Category({"Alfresco", "Event Pipeline"})
+@Description("Invocation of an event handler")
+@StackTrace(false)
+public class HandlerEvent extends Event {
+
+    public static final String NAME = "org.alfresco.events.Handler";
+
+    @Label("Handler")
+    public String handler;
+
+    @Label("Event Type")
+    public String eventType;
+
+    @Label("Event Id")
+    public String eventId;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+}
@@ -0,0 +1,199 @@
+package org.alfresco.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Offline analyzer printing the latency percentiles of every stage of the event pipeline from a Flight Recorder file.
+ * <p>
+ * Stages are the transformation of messages (split between Community and Enterprise events), and the filter
+ * evaluation and invocation of each handler. For every stage, the analyzer also counts the executions overlapping
+ * a garbage collection pause, as a first hint before opening the recording in JDK Mission Control.
+ * </p>
+ * The analyzer only depends on the JDK, so it can be run from the compiled classes:
+ * <pre>
+ * java -cp target/classes org.alfresco.jfr.PipelineRecordingAnalyzer pipeline.jfr
+ * </pre>
+ */
+public class PipelineRecordingAnalyzer {
+
+    private static final String GC_PAUSE = "jdk.GCPhasePause";
+
+    private final Map<String, Stage> stages = new TreeMap<>();
+    private final List<long[]> gcPauses = new ArrayList<>();
+    private long[] gcPauseStarts = new long[0];
+    private long[] gcPauseMaxEnds = new long[0];
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java -cp <classpath> " + PipelineRecordingAnalyzer.class.getName() + " <recording.jfr>");
+            System.exit(1);
+        }
+        PipelineRecordingAnalyzer analyzer = new PipelineRecordingAnalyzer();
+        analyzer.read(Path.of(args[0]));
+        analyzer.print(System.out);
+    }
+
+    /**
+     * Reads the pipeline events and the garbage collection pauses of a recording.
+     *
+     * @param recording the path of the {@code .jfr} file
+     * @throws IOException if the file cannot be read
+     */
+    public void read(Path recording) throws IOException {
+        try (RecordingFile recordingFile = new RecordingFile(recording)) {
+            while (recordingFile.hasMoreEvents()) {
+                accept(recordingFile.readEvent());
+            }
+        }
+        gcPauses.sort(Comparator.comparingLong(pause -> pause[0]));
+        gcPauseStarts = new long[gcPauses.size()];
+        gcPauseMaxEnds = new long[gcPauses.size()];
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = 0; i < gcPauses.size(); i++) {
+            gcPauseStarts[i] = gcPauses.get(i)[0];
+            maxEnd = Math.max(maxEnd, gcPauses.get(i)[1]);
+            gcPauseMaxEnds[i] = maxEnd;
+        }
+    }
+
+    private void accept(RecordedEvent event) {
+        String eventName = event.getEventType().getName();
+        switch (eventName) {
+            case TransformEvent.NAME -> stage("transform " + (event.getBoolean("enterprise") ? "enterprise" : "community"))
+                    .add(event, event.getLong("payloadLength"));
+            case FilterEvent.NAME -> stage("filter " + event.getString("handler")).add(event, -1);
+            case HandlerEvent.NAME -> stage("handler " + event.getString("handler")).add(event, -1);
+            case GC_PAUSE -> gcPauses.add(new long[]{nanos(event.getStartTime()), nanos(event.getEndTime())});
+            default -> {
+                // Not part of the pipeline analysis
+            }
+        }
+    }
+
+    private Stage stage(String name) {
+        return stages.computeIfAbsent(name, key -> new Stage());
+    }
+
+    /**
+     * Prints a table with the latency percentiles of every stage, in milliseconds.
+     *
+     * @param out the stream to print to
+     */
+    public void print(PrintStream out) {
+        if (stages.isEmpty()) {
+            out.println("No event pipeline events found, was the recording started with event-pipeline.jfc?");
+            return;
+        }
+        out.printf("%-48s %8s %10s %10s %10s %10s %8s %12s%n",
+                "Stage", "Count", "p50 ms", "p90 ms", "p99 ms", "Max ms", "In GC", "Avg payload");
+        stages.forEach((name, stage) -> {
+            long[] durations = stage.sortedDurations();
+            out.printf("%-48s %8d %10.3f %10.3f %10.3f %10.3f %8d %12s%n",
+                    name, durations.length,
+                    millis(percentile(durations, 0.50)),
+                    millis(percentile(durations, 0.90)),
+                    millis(percentile(durations, 0.99)),
+                    millis(durations[durations.length - 1]),
+                    stage.overlappingGcPause(gcPauseStarts, gcPauseMaxEnds),
+                    stage.payloadCount == 0 ? "-" : String.valueOf(stage.payloadTotal / stage.payloadCount));
+        });
+        out.printf("%nGC pauses: %d%n", gcPauses.size());
+    }
+
+    /**
+     * Returns the nearest-rank percentile of sorted values.
+     *
+     * @param sorted   the values, in ascending order
+     * @param quantile the quantile, between 0 and 1
+     * @return the percentile
+     */
+    static long percentile(long[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Checks whether an execution overlaps a pause.
+     *
+     * @param start       the start of the execution, in nanoseconds
+     * @param end         the end of the execution, in nanoseconds
+     * @param pauseStarts the starts of the pauses, in ascending order
+     * @param maxEnds     for every pause, the latest end among this pause and the pauses starting before it,
+     *                    so pauses may overlap each other
+     * @return {@code true} if a pause starts before the end of the execution and ends after its start
+     */
+    static boolean overlapsPause(long start, long end, long[] pauseStarts, long[] maxEnds) {
+        // Find the last pause starting before the end of the execution
+        int low = 0;
+        int high = pauseStarts.length - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (pauseStarts[middle] <= end) {
+                candidate = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return candidate >= 0 && maxEnds[candidate] >= start;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    /**
+     * The executions recorded for a stage.
+     */
+    private static final class Stage {
+
+        private long[] durations = new long[64];
+        private long[] starts = new long[64];
+        private int count;
+        private long payloadTotal;
+        private long payloadCount;
+
+        void add(RecordedEvent event, long payloadLength) {
+            if (count == durations.length) {
+                durations = Arrays.copyOf(durations, count * 2);
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            durations[count] = event.getDuration().toNanos();
+            starts[count] = nanos(event.getStartTime());
+            count++;
+            if (payloadLength >= 0) {
+                payloadTotal += payloadLength;
+                payloadCount++;
+            }
+        }
+
+        long[] sortedDurations() {
+            long[] sorted = Arrays.copyOf(durations, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        long overlappingGcPause(long[] pauseStarts, long[] maxPauseEnds) {
+            long overlapping = 0;
+            for (int i = 0; i < count; i++) {
+                if (overlapsPause(starts[i], starts[i] + durations[i], pauseStarts, maxPauseEnds)) {
+                    overlapping++;
+                }
+            }
+            return overlapping;
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package org.alfresco.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted for every JSON message transformed into a repository event
+ * by {@link org.alfresco.event.sdk.integration.transformer.EventGenericTransformer}.
+ */
+@Name(TransformEvent.NAME)
+@Label("Event Transform")
+@Category({"Alfresco", "Event Pipeline"})
+@Description("Deserialization of an ActiveMQ message into a repository event")
+@StackTrace(false)
+public class TransformEvent extends Event {
+
+    public static final String NAME = "org.alfresco.events.Transform";
+
+    @Label("Enterprise")
+    @Description("Whether the message was deserialized as an Enterprise event")
+    public boolean enterprise;
+
+    @Label("Payload Length")
+    @Description("Length of the JSON message, in characters")
+    public long payloadLength;
+
+    @Label("Payload Mode")
+    @Description("How the message was deserialized depending on its length: FULL, TRUNCATED or REJECTED")
+    public String payloadMode;
+
+    @Label("Event Type")
+    public String eventType;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+}
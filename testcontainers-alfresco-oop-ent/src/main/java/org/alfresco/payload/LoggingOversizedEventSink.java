@@ -0,0 +1,19 @@
+package org.alfresco.payload;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The default {@link OversizedEventSink}, logging the envelope of the rejected events.
+ */
+public class LoggingOversizedEventSink implements OversizedEventSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoggingOversizedEventSink.class);
+
+    @Override
+    public void accept(OversizedEvent oversizedEvent) {
+        LOGGER.warn("Event {} of type {} has been rejected, its payload of {} characters exceeds the hard limit: {}",
+                oversizedEvent.id(), oversizedEvent.type(), oversizedEvent.payloadLength(), oversizedEvent.excerpt());
+    }
+
+}
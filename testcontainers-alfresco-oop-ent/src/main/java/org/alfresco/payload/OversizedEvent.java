@@ -0,0 +1,12 @@
+package org.alfresco.payload;
+
+/**
+ * The envelope of an event rejected because its payload exceeds the hard limit.
+ *
+ * @param id            the event id, or {@code null} if it could not be read
+ * @param type          the event type, or {@code null} if it could not be read
+ * @param payloadLength the length of the JSON message, in characters
+ * @param excerpt       the beginning of the JSON message
+ */
+public record OversizedEvent(String id, String type, int payloadLength, String excerpt) {
+}
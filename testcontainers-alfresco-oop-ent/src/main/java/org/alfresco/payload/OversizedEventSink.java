@@ -0,0 +1,19 @@
+package org.alfresco.payload;
+
+/**
+ * Side path receiving the events whose payload exceeds the hard limit, instead of the handlers.
+ * <p>
+ * Declare a bean implementing this interface to replace the default {@link LoggingOversizedEventSink},
+ * e.g. to publish the envelope to a dead letter destination or to fetch the node from the REST API.
+ */
+@FunctionalInterface
+public interface OversizedEventSink {
+
+    /**
+     * Receives an oversized event. Implementations must not keep a reference to the payload.
+     *
+     * @param oversizedEvent the envelope of the event
+     */
+    void accept(OversizedEvent oversizedEvent);
+
+}
@@ -0,0 +1,214 @@
+package org.alfresco.payload;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Size limits applied to the JSON messages before they are deserialized into repository events.
+ * <p>
+ * The size of a message is its length in characters, which is known without reading or copying the message.
+ * Messages up to the soft limit are deserialized as usual. Messages over the soft limit are streamed through
+ * a {@link JsonParser}, dropping the object fields and array items beyond {@code maxContainerEntries} (e.g. node
+ * properties or aspect names) and cutting strings at {@code maxStringLength}, so the memory used by the event
+ * is bounded by the limits rather than by the payload size. Messages over the hard limit are not deserialized:
+ * their envelope is passed to the {@link OversizedEventSink}.
+ * </p>
+ * <p>
+ * The reader authorities, denied authorities and reader security controls of Enterprise events are never truncated,
+ * as they decide who can access the node: dropping denied authorities or security controls would widen the access.
+ * </p>
+ * The guard used by {@link org.alfresco.event.sdk.integration.transformer.EventGenericTransformer} is installed
+ * with {@link #install(PayloadGuard)}, as the transformer is created by the Alfresco Java SDK and not by Spring.
+ */
+public class PayloadGuard {
+
+    /**
+     * How a message is deserialized, depending on its size.
+     */
+    public enum Mode {
+        FULL, TRUNCATED, REJECTED
+    }
+
+    public static final int DEFAULT_SOFT_LIMIT = 512 * 1024;
+    public static final int DEFAULT_HARD_LIMIT = 8 * 1024 * 1024;
+    public static final int DEFAULT_MAX_CONTAINER_ENTRIES = 500;
+    public static final int DEFAULT_MAX_STRING_LENGTH = 8 * 1024;
+    public static final int DEFAULT_LOG_EXCERPT_LENGTH = 1000;
+
+    private static final Set<String> AUTHORITY_FIELDS =
+            Set.of("resourceReaderAuthorities", "resourceDeniedAuthorities", "resourceReaderSecurityControls");
+
+    private static volatile PayloadGuard current = new PayloadGuard(DEFAULT_SOFT_LIMIT, DEFAULT_HARD_LIMIT,
+            DEFAULT_MAX_CONTAINER_ENTRIES, DEFAULT_MAX_STRING_LENGTH, DEFAULT_LOG_EXCERPT_LENGTH, new LoggingOversizedEventSink());
+
+    private final int softLimit;
+    private final int hardLimit;
+    private final int maxContainerEntries;
+    private final int maxStringLength;
+    private final int logExcerptLength;
+    private final OversizedEventSink oversizedEventSink;
+
+    /**
+     * Creates a guard.
+     *
+     * @param softLimit           the length, in characters, beyond which messages are deserialized in truncating mode
+     * @param hardLimit           the length, in characters, beyond which messages are rejected
+     * @param maxContainerEntries the maximum number of fields of an object or items of an array in truncating mode
+     * @param maxStringLength     the maximum length of a string value in truncating mode
+     * @param logExcerptLength    the maximum number of characters of a message written to logs
+     * @param oversizedEventSink  the side path of the rejected messages
+     */
+    public PayloadGuard(int softLimit, int hardLimit, int maxContainerEntries, int maxStringLength, int logExcerptLength,
+                        OversizedEventSink oversizedEventSink) {
+        this.softLimit = softLimit;
+        this.hardLimit = hardLimit;
+        this.maxContainerEntries = maxContainerEntries;
+        this.maxStringLength = maxStringLength;
+        this.logExcerptLength = logExcerptLength;
+        this.oversizedEventSink = oversizedEventSink;
+    }
+
+    /**
+     * Returns the guard installed for the application.
+     *
+     * @return the current guard, with default limits until one is installed
+     */
+    public static PayloadGuard current() {
+        return current;
+    }
+
+    /**
+     * Installs the guard used by the transformers created without an explicit guard.
+     *
+     * @param payloadGuard the guard
+     */
+    public static void install(PayloadGuard payloadGuard) {
+        current = payloadGuard;
+    }
+
+    /**
+     * Returns how a message has to be deserialized.
+     *
+     * @param json the JSON message
+     * @return the deserialization mode
+     */
+    public Mode modeOf(String json) {
+        if (json.length() > hardLimit) {
+            return Mode.REJECTED;
+        }
+        return json.length() > softLimit ? Mode.TRUNCATED : Mode.FULL;
+    }
+
+    /**
+     * Returns the beginning of a message, to be written to logs.
+     *
+     * @param json the JSON message
+     * @return the message, cut at the log excerpt length
+     */
+    public String excerpt(String json) {
+        if (json.length() <= logExcerptLength) {
+            return json;
+        }
+        return json.substring(0, logExcerptLength) + "... (" + json.length() + " characters)";
+    }
+
+    /**
+     * Deserializes a message over the soft limit, dropping the entries and characters beyond the limits.
+     *
+     * @param objectMapper the mapper configured for repository events
+     * @param json         the JSON message
+     * @param type         the type of the event
+     * @param <T>          the type of the event
+     * @return the truncated event
+     * @throws IOException if the message is not valid JSON or cannot be deserialized
+     */
+    public <T> T readTruncated(ObjectMapper objectMapper, String json, TypeReference<T> type) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(json);
+             TokenBuffer buffer = new TokenBuffer(parser)) {
+            if (parser.nextToken() == null) {
+                throw new IOException("Empty JSON event");
+            }
+            copyTruncated(parser, buffer);
+            try (JsonParser truncated = buffer.asParser(objectMapper)) {
+                return objectMapper.readerFor(type).readValue(truncated);
+            }
+        }
+    }
+
+    /**
+     * Passes the envelope of a message over the hard limit to the side path, reading only its top level fields.
+     *
+     * @param objectMapper the mapper configured for repository events
+     * @param json         the JSON message
+     * @return the envelope passed to the side path
+     */
+    public OversizedEvent reject(ObjectMapper objectMapper, String json) {
+        String id = null;
+        String type = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while ((id == null || type == null) && parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (value == JsonToken.VALUE_STRING && "id".equals(fieldName)) {
+                        id = parser.getText();
+                    } else if (value == JsonToken.VALUE_STRING && "type".equals(fieldName)) {
+                        type = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        } catch (IOException ioException) {
+            // The envelope is informative only, the event is rejected anyway
+        }
+        OversizedEvent oversizedEvent = new OversizedEvent(id, type, json.length(), excerpt(json));
+        oversizedEventSink.accept(oversizedEvent);
+        return oversizedEvent;
+    }
+
+    private void copyTruncated(JsonParser parser, TokenBuffer out) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT -> {
+                out.writeStartObject();
+                int fields = 0;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = parser.currentName();
+                    parser.nextToken();
+                    if (AUTHORITY_FIELDS.contains(fieldName)) {
+                        out.writeFieldName(fieldName);
+                        out.copyCurrentStructure(parser);
+                    } else if (fields++ < maxContainerEntries) {
+                        out.writeFieldName(fieldName);
+                        copyTruncated(parser, out);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                out.writeEndObject();
+            }
+            case START_ARRAY -> {
+                out.writeStartArray();
+                int items = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (items++ < maxContainerEntries) {
+                        copyTruncated(parser, out);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                out.writeEndArray();
+            }
+            case VALUE_STRING -> out.writeString(parser.getTextCharacters(), parser.getTextOffset(),
+                    Math.min(parser.getTextLength(), maxStringLength));
+            default -> out.copyCurrentEvent(parser);
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package org.alfresco.payload;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Installs the {@link PayloadGuard} described by the {@code alfresco.events.payload} properties,
+ * passing rejected events to the {@link OversizedEventSink} bean when one is declared.
+ */
+@Configuration
+@EnableConfigurationProperties(PayloadProperties.class)
+public class PayloadGuardConfiguration {
+
+    /**
+     * Creates the guard and installs it for the transformer created by the Alfresco Java SDK.
+     *
+     * @param properties          the size limits
+     * @param oversizedEventSinks the side path declared in the application, if any
+     * @return the installed guard
+     */
+    @Bean
+    public PayloadGuard payloadGuard(PayloadProperties properties, ObjectProvider<OversizedEventSink> oversizedEventSinks) {
+        PayloadGuard payloadGuard = new PayloadGuard(properties.getSoftLimit(), properties.getHardLimit(),
+                properties.getMaxContainerEntries(), properties.getMaxStringLength(), properties.getLogExcerptLength(),
+                oversizedEventSinks.getIfAvailable(LoggingOversizedEventSink::new));
+        PayloadGuard.install(payloadGuard);
+        return payloadGuard;
+    }
+
+}
@@ -0,0 +1,57 @@
+package org.alfresco.payload;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Size limits of the event payloads, bound to the {@code alfresco.events.payload} properties, see {@link PayloadGuard}.
+ */
+@ConfigurationProperties(prefix = "alfresco.events.payload")
+public class PayloadProperties {
+
+    private int softLimit = PayloadGuard.DEFAULT_SOFT_LIMIT;
+    private int hardLimit = PayloadGuard.DEFAULT_HARD_LIMIT;
+    private int maxContainerEntries = PayloadGuard.DEFAULT_MAX_CONTAINER_ENTRIES;
+    private int maxStringLength = PayloadGuard.DEFAULT_MAX_STRING_LENGTH;
+    private int logExcerptLength = PayloadGuard.DEFAULT_LOG_EXCERPT_LENGTH;
+
+    public int getSoftLimit() {
+        return softLimit;
+    }
+
+    public void setSoftLimit(int softLimit) {
+        this.softLimit = softLimit;
+    }
+
+    public int getHardLimit() {
+        return hardLimit;
+    }
+
+    public void setHardLimit(int hardLimit) {
+        this.hardLimit = hardLimit;
+    }
+
+    public int getMaxContainerEntries() {
+        return maxContainerEntries;
+    }
+
+    public void setMaxContainerEntries(int maxContainerEntries) {
+        this.maxContainerEntries = maxContainerEntries;
+    }
+
+    public int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    public void setMaxStringLength(int maxStringLength) {
+        this.maxStringLength = maxStringLength;
+    }
+
+    public int getLogExcerptLength() {
+        return logExcerptLength;
+    }
+
+    public void setLogExcerptLength(int logExcerptLength) {
+        this.logExcerptLength = logExcerptLength;
+    }
+
+}
@@ -0,0 +1,208 @@
+package org.alfresco.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.EventType;
+import org.alfresco.repo.event.v1.model.NodeResource;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.alfresco.support.RecordingHandler;
+import org.alfresco.support.TestEvents;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test for {@link BulkheadEventHandlingExecutor}.
+ * Assertions depend on timing, so the test runs in isolation.
+ */
+@Isolated
+public class BulkheadEventHandlingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BulkheadEventHandlingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    @Test
+    void testSlowHandlerDoesNotDelayOtherHandlers() throws InterruptedException {
+        RecordingHandler slowHandler = new RecordingHandler(EventType.NODE_CREATED);
+        slowHandler.setAction(event -> release.await());
+        RecordingHandler fastHandler = new RecordingHandler(EventType.NODE_CREATED);
+        executor = new BulkheadEventHandlingExecutor(List.of(slowHandler, fastHandler), bulkhead(10, Duration.ofSeconds(30)), meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-" + i));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertNotNull(fastHandler.poll(5000), "Fast handler should receive every event");
+        }
+        Assertions.assertEquals(4, executor.bulkheadOf(slowHandler).queueDepth(),
+                "Events of the slow handler should wait in its own queue");
+    }
+
+    @Test
+    void testFullQueueShedsEvents() throws InterruptedException {
+        RecordingHandler slowHandler = new RecordingHandler(EventType.NODE_CREATED);
+        CountDownLatch started = new CountDownLatch(1);
+        slowHandler.setAction(event -> {
+            started.countDown();
+            release.await();
+        });
+        executor = new BulkheadEventHandlingExecutor(List.of(slowHandler), bulkhead(1, Duration.ofSeconds(30)), meterRegistry);
+
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1"));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-2"));
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-3"));
+
+        Assertions.assertEquals(1.0, meterRegistry.get("alfresco.events.handler.shed")
+                .tag("handler", "RecordingHandler").tag("reason", "queue-full").counter().count(),
+                "Event exceeding the queue capacity should be shed");
+    }
+
+    @Test
+    void testTimeoutsOpenTheCircuitAndParkEvents() throws InterruptedException {
+        RecordingHandler stuckHandler = new RecordingHandler(EventType.NODE_CREATED);
+        stuckHandler.setAction(event -> release.await());
+        executor = new BulkheadEventHandlingExecutor(List.of(stuckHandler), bulkhead(10, Duration.ofMillis(50)), meterRegistry);
+        HandlerBulkhead bulkhead = executor.bulkheadOf(stuckHandler);
+
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1"));
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-2"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bulkhead.getCircuitBreaker().getState() != CircuitBreaker.State.OPEN && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, bulkhead.getCircuitBreaker().getState(),
+                "Two timeouts should open the circuit");
+
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-3"));
+        Assertions.assertEquals(1, bulkhead.parkedCount(), "Event received while the circuit is open should be parked");
+        Assertions.assertEquals(0, stuckHandler.size(), "Timed out invocations should not complete");
+    }
+
+    @Test
+    void testTimeoutOpensTheCircuitWhileHandlerIgnoresInterruption() throws InterruptedException {
+        RecordingHandler stuckHandler = new RecordingHandler(EventType.NODE_CREATED);
+        // Simulates a call to an external service that does not react to interruptions
+        stuckHandler.setAction(event -> {
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                    // Keep waiting
+                }
+            }
+        });
+        EventDispatchProperties.Bulkhead properties = bulkhead(10, Duration.ofMillis(50));
+        properties.getDefaults().setFailureThreshold(1);
+        executor = new BulkheadEventHandlingExecutor(List.of(stuckHandler), properties, meterRegistry);
+        HandlerBulkhead bulkhead = executor.bulkheadOf(stuckHandler);
+
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bulkhead.getCircuitBreaker().getState() != CircuitBreaker.State.OPEN && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, bulkhead.getCircuitBreaker().getState(),
+                "Timeout should open the circuit while the handler is still blocked");
+        Assertions.assertEquals(1, meterRegistry.get("alfresco.events.handler.latency")
+                .tag("handler", "RecordingHandler").tag("outcome", "timeout").timer().count(),
+                "Timeout should be recorded while the handler is still blocked");
+    }
+
+    @Test
+    void testParkedEventsAreRedeliveredInOrderWithoutNewEvents() throws InterruptedException {
+        RecordingHandler failingHandler = new RecordingHandler(EventType.NODE_CREATED);
+        failingHandler.setAction(event -> {
+            throw new IllegalStateException("Service unavailable");
+        });
+        EventDispatchProperties.Bulkhead properties = bulkhead(10, Duration.ofSeconds(30));
+        properties.getDefaults().setFailureThreshold(1);
+        properties.getDefaults().setOpenDuration(Duration.ofMillis(200));
+        executor = new BulkheadEventHandlingExecutor(List.of(failingHandler), properties, meterRegistry);
+        HandlerBulkhead bulkhead = executor.bulkheadOf(failingHandler);
+
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bulkhead.getCircuitBreaker().getState() != CircuitBreaker.State.OPEN && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, bulkhead.getCircuitBreaker().getState());
+        for (int i = 2; i <= 4; i++) {
+            executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-" + i));
+        }
+        Assertions.assertEquals(3, bulkhead.parkedCount(), "Events received while the circuit is open should be parked");
+
+        // The handler recovers, and no new event is received
+        failingHandler.setAction(event -> {
+        });
+        for (int i = 2; i <= 4; i++) {
+            RepoEvent<DataAttributes<Resource>> event = failingHandler.poll(5000);
+            Assertions.assertNotNull(event, "Parked events should be redelivered without new events");
+            Assertions.assertEquals("node-" + i, ((NodeResource) event.getData().getResource()).getId(),
+                    "Parked events should be redelivered in order");
+        }
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, bulkhead.getCircuitBreaker().getState());
+        Assertions.assertEquals(0, bulkhead.parkedCount());
+    }
+
+    @Test
+    void testQueuedEventsAreParkedWhenTheCircuitOpens() throws InterruptedException {
+        RecordingHandler failingHandler = new RecordingHandler(EventType.NODE_CREATED);
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        failingHandler.setAction(event -> {
+            invocations.incrementAndGet();
+            started.countDown();
+            release.await();
+            throw new IllegalStateException("Service unavailable");
+        });
+        EventDispatchProperties.Bulkhead properties = bulkhead(10, Duration.ofSeconds(30));
+        properties.getDefaults().setFailureThreshold(1);
+        executor = new BulkheadEventHandlingExecutor(List.of(failingHandler), properties, meterRegistry);
+        HandlerBulkhead bulkhead = executor.bulkheadOf(failingHandler);
+
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1"));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 4; i++) {
+            executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-" + i));
+        }
+        Assertions.assertEquals(3, bulkhead.queueDepth());
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bulkhead.parkedCount() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(3, bulkhead.parkedCount(), "Queued events should be parked when the circuit opens");
+        Assertions.assertEquals(0, bulkhead.queueDepth());
+        Thread.sleep(100);
+        Assertions.assertEquals(1, invocations.get(), "Failing handler should not be invoked for the queued events");
+    }
+
+    private static EventDispatchProperties.Bulkhead bulkhead(int queueCapacity, Duration timeout) {
+        EventDispatchProperties.Bulkhead bulkhead = new EventDispatchProperties.Bulkhead();
+        bulkhead.setEnabled(true);
+        bulkhead.getDefaults().setQueueCapacity(queueCapacity);
+        bulkhead.getDefaults().setTimeout(timeout);
+        bulkhead.getDefaults().setFailureThreshold(2);
+        bulkhead.getDefaults().setOpenDuration(Duration.ofMinutes(1));
+        return bulkhead;
+    }
+
+}
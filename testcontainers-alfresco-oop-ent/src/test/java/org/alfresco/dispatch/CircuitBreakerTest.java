@@ -0,0 +1,61 @@
+package org.alfresco.dispatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit test for {@link CircuitBreaker}, using a manual clock.
+ */
+public class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ofNanos(100), clock::get);
+
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        Assertions.assertFalse(circuitBreaker.onFailure(), "First failure should not open the circuit");
+        circuitBreaker.onSuccess();
+        Assertions.assertFalse(circuitBreaker.onFailure(), "Failures should be consecutive to open the circuit");
+        Assertions.assertTrue(circuitBreaker.onFailure(), "Second consecutive failure should open the circuit");
+        Assertions.assertFalse(circuitBreaker.tryAcquire(), "Open circuit should reject events");
+    }
+
+    @Test
+    void testLetsOneTrialThroughAfterOpenDuration() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+
+        clock.addAndGet(100);
+        Assertions.assertTrue(circuitBreaker.tryAcquire(), "Trial event should be let through");
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquire(), "Only one trial event should be let through");
+
+        Assertions.assertTrue(circuitBreaker.onSuccess(), "Successful trial should close the circuit");
+        Assertions.assertTrue(circuitBreaker.tryAcquire(), "Closed circuit should accept events");
+    }
+
+    @Test
+    void testFailedTrialOpensTheCircuitAgain() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        clock.addAndGet(100);
+        circuitBreaker.tryAcquire();
+
+        Assertions.assertTrue(circuitBreaker.onFailure(), "Failed trial should open the circuit");
+        Assertions.assertFalse(circuitBreaker.tryAcquire(), "Open circuit should reject events");
+    }
+
+    @Test
+    void testLateSuccessDoesNotCloseAnOpenCircuit() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+
+        Assertions.assertFalse(circuitBreaker.onSuccess(), "Success of an execution started before the circuit opened should be ignored");
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquire(), "Open circuit should still reject events");
+    }
+
+}
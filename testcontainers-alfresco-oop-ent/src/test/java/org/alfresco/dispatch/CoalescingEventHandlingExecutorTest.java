@@ -0,0 +1,158 @@
+package org.alfresco.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.alfresco.repo.event.v1.model.*;
+import org.alfresco.support.RecordingHandler;
+import org.alfresco.support.TestEvents;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit test for {@link CoalescingEventHandlingExecutor}, delivering to a {@link DirectEventHandlingExecutor}.
+ * Assertions depend on timing, so the test runs in isolation.
+ */
+@Isolated
+public class CoalescingEventHandlingExecutorTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(200);
+
+    private final RecordingHandler handler =
+            new RecordingHandler(EventType.NODE_CREATED, EventType.NODE_UPDATED, EventType.NODE_DELETED);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private CoalescingEventHandlingExecutor executor;
+
+    @BeforeEach
+    void setUpEach() {
+        EventDispatchProperties.Coalescing coalescing = new EventDispatchProperties.Coalescing();
+        coalescing.setEnabled(true);
+        coalescing.setWindow(WINDOW);
+        coalescing.setMaxBufferedNodes(2);
+        executor = new CoalescingEventHandlingExecutor(new DirectEventHandlingExecutor(List.of(handler)), coalescing,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        executor.close();
+    }
+
+    @Test
+    void testCreatedAndUpdatedAreMergedIntoCreated() throws InterruptedException {
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1", "upload.tmp", "application/octet-stream", null, null));
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_UPDATED, "node-1", "upload.html", "text/html", null, null));
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_UPDATED, "node-1", "index.html", "text/html", null, null));
+
+        RepoEvent<DataAttributes<Resource>> event = handler.poll(WINDOW.toMillis() * 10);
+        Assertions.assertNotNull(event, "Net effect should be delivered once the window elapses");
+        Assertions.assertEquals(TestEvents.NODE_CREATED, event.getType(), "Net effect of a creation followed by updates is a creation");
+        NodeResource resource = (NodeResource) event.getData().getResource();
+        Assertions.assertEquals("index.html", resource.getName(), "Merged event should carry the latest state");
+        Assertions.assertEquals("text/html", resource.getContent().getMimeType(), "Merged event should carry the latest content");
+        Assertions.assertNull(handler.poll(WINDOW.toMillis() * 2), "Only the net effect should be delivered");
+    }
+
+    @Test
+    void testCreatedAndDeletedCancelEachOther() throws InterruptedException {
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1"));
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_DELETED, "node-1"));
+
+        Assertions.assertNull(handler.poll(WINDOW.toMillis() * 3), "Node created and deleted within the window should not be delivered");
+    }
+
+    @Test
+    void testEventsOfDifferentNodesAreNotCoalesced() throws InterruptedException {
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1"));
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-2"));
+
+        Assertions.assertNotNull(handler.poll(WINDOW.toMillis() * 10));
+        Assertions.assertNotNull(handler.poll(WINDOW.toMillis() * 10));
+    }
+
+    @Test
+    void testFullBufferDeliversImmediately() {
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1"));
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-2"));
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-3"));
+
+        Assertions.assertEquals(2, executor.bufferedCount(), "Buffer should not exceed the maximum number of nodes");
+        Assertions.assertEquals(1, handler.size(), "Event exceeding the buffer should be delivered without waiting");
+    }
+
+    @Test
+    void testSlowDeliveryDoesNotBlockNewEvents() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        handler.setAction(event -> {
+            if ("node-1".equals(nodeId(event))) {
+                started.countDown();
+                release.await();
+            }
+        });
+
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1"));
+        Assertions.assertTrue(started.await(WINDOW.toMillis() * 10, TimeUnit.MILLISECONDS), "Expired event should be delivered");
+
+        // The delivery of node-1 is blocked in the handler
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-2"));
+            executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-3"));
+            executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-4"));
+        }, "Slow delivery of an expired event should not block new events");
+        // The event waiting for the delivery thread counts against the maximum number of buffered nodes
+        Assertions.assertEquals(1, executor.bufferedCount());
+        for (String overflowedNode : List.of("node-3", "node-4")) {
+            RepoEvent<DataAttributes<Resource>> overflowed = handler.poll(WINDOW.toMillis());
+            Assertions.assertNotNull(overflowed, "Events exceeding the buffer should be delivered while an expired event is blocked");
+            Assertions.assertEquals(overflowedNode, nodeId(overflowed));
+        }
+    }
+
+    @Test
+    void testConsumerWaitsForSlowDeliveryAndEventsOfNodeKeepTheirOrder() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        handler.setAction(event -> {
+            if (TestEvents.NODE_CREATED.equals(event.getType()) && "node-1".equals(nodeId(event))) {
+                started.countDown();
+                release.await();
+            }
+        });
+
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1"));
+        Assertions.assertTrue(started.await(WINDOW.toMillis() * 10, TimeUnit.MILLISECONDS), "Expired event should be delivered");
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-2"));
+        // node-1 waiting for the delivery thread and node-2 buffered reach the limit of 2 events held
+        Thread consumer = new Thread(() -> executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_UPDATED, "node-1")));
+        consumer.start();
+
+        consumer.join(WINDOW.toMillis() / 2);
+        Assertions.assertTrue(consumer.isAlive(), "Consumption should wait while the delivery thread is behind");
+        release.countDown();
+        consumer.join(5000);
+        Assertions.assertFalse(consumer.isAlive(), "Consumption should resume once the delivery thread catches up");
+
+        List<String> node1Types = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            RepoEvent<DataAttributes<Resource>> event = handler.poll(WINDOW.toMillis() * 10);
+            Assertions.assertNotNull(event, "Every event should be delivered");
+            if ("node-1".equals(nodeId(event))) {
+                node1Types.add(event.getType());
+            }
+        }
+        Assertions.assertEquals(List.of(TestEvents.NODE_CREATED, TestEvents.NODE_UPDATED), node1Types,
+                "Events of a node should be delivered in order");
+    }
+
+    private static String nodeId(RepoEvent<DataAttributes<Resource>> event) {
+        return ((NodeResource) event.getData().getResource()).getId();
+    }
+
+}
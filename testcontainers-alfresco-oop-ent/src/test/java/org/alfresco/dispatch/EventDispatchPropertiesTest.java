@@ -0,0 +1,39 @@
+package org.alfresco.dispatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+/**
+ * Unit test for {@link EventDispatchProperties}.
+ */
+public class EventDispatchPropertiesTest {
+
+    @Test
+    void testHandlerSettingsOverrideDefaults() {
+        EventDispatchProperties.Bulkhead bulkhead = new EventDispatchProperties.Bulkhead();
+        bulkhead.getDefaults().setTimeout(Duration.ofSeconds(5));
+        bulkhead.getDefaults().setQueueCapacity(50);
+        EventDispatchProperties.BulkheadSettings handlerSettings = new EventDispatchProperties.BulkheadSettings();
+        handlerSettings.setWorkers(2);
+        bulkhead.getHandlers().put("htmlcontentcreatedhandler", handlerSettings);
+
+        EventDispatchProperties.BulkheadSettings settings = bulkhead.settingsFor("HtmlContentCreatedHandler");
+        Assertions.assertEquals(2, settings.getWorkers(), "Handler value should override the default value");
+        Assertions.assertEquals(Duration.ofSeconds(5), settings.getTimeout(), "Values not set for the handler should be taken from defaults");
+        Assertions.assertEquals(50, settings.getQueueCapacity(), "Values not set for the handler should be taken from defaults");
+        Assertions.assertEquals(5, settings.getFailureThreshold(), "Values set nowhere should take the built-in value");
+    }
+
+    @Test
+    void testUnknownHandlerUsesDefaults() {
+        EventDispatchProperties.Bulkhead bulkhead = new EventDispatchProperties.Bulkhead();
+        bulkhead.getDefaults().setWorkers(3);
+
+        EventDispatchProperties.BulkheadSettings settings = bulkhead.settingsFor("OtherHandler");
+        Assertions.assertEquals(3, settings.getWorkers());
+        Assertions.assertEquals(EventDispatchProperties.OpenCircuitPolicy.PARK, settings.getOpenCircuitPolicy());
+    }
+
+}
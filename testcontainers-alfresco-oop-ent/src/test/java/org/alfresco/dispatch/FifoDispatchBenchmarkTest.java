@@ -0,0 +1,23 @@
+package org.alfresco.dispatch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Mixed workload benchmark without priority lanes, as the baseline for {@link PriorityLanesBenchmarkTest}:
+ * {@code Created} events wait behind every {@code Updated} event received before them.
+ */
+@SpringBootTest(properties = {
+        "alfresco.events.dispatch.bulkhead.enabled=false",
+        "alfresco.events.dispatch.priority.enabled=false"
+})
+@Import(MixedWorkloadBenchmark.BenchmarkHandlers.class)
+public class FifoDispatchBenchmarkTest extends MixedWorkloadBenchmark {
+
+    @Test
+    void testCreatedLatencyUnderUpdatedFlood() throws Exception {
+        runMixedWorkload("FIFO dispatch");
+    }
+
+}
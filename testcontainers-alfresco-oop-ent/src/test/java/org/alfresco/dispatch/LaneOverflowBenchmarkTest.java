@@ -0,0 +1,131 @@
+package org.alfresco.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.alfresco.event.sdk.handling.EventHandlingExecutor;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.EventType;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.alfresco.support.RecordingHandler;
+import org.alfresco.support.TestEvents;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flood of {@code Updated} events larger than the capacity of the low lane, with {@code Created} events interleaved,
+ * comparing the latency of the {@code Created} events with FIFO dispatching and with priority lanes.
+ * <p>
+ * The events are already waiting in the broker when the consumption starts, as during an Enterprise re-indexing,
+ * and are passed to the executor by a single thread, as by the JMS listener. With FIFO dispatching, a {@code Created}
+ * event waits for every {@code Updated} event received before it. A low lane waiting for room when full would do the
+ * same once the flood exceeds its capacity, so the low lane sheds the events it has no room for.
+ * The minimum speed-up can be changed with the {@code benchmark.lanes.speedup} system property.
+ */
+@Tag("benchmark")
+@Isolated
+public class LaneOverflowBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LaneOverflowBenchmarkTest.class);
+
+    private static final int LOW_LANE_CAPACITY = 200;
+    private static final int UPDATED_EVENTS = 3000;
+    private static final int UPDATED_PER_CREATED = 20;
+    private static final long SLOW_HANDLER_MILLIS = 1;
+    private static final double MIN_SPEEDUP = Double.parseDouble(System.getProperty("benchmark.lanes.speedup", "10"));
+
+    @Test
+    void testCreatedLatencyUnderFloodLargerThanLaneCapacity() throws Exception {
+        double fifoP99 = percentile(run("FIFO dispatch", false), 0.99);
+        double lanesP99 = percentile(run("Priority lanes", true), 0.99);
+
+        Assertions.assertTrue(lanesP99 * MIN_SPEEDUP <= fifoP99, "Created events p99 latency with priority lanes ("
+                + lanesP99 + " ms) should be " + MIN_SPEEDUP + " times below FIFO dispatching (" + fifoP99 + " ms)");
+    }
+
+    private double[] run(String label, boolean lanes) throws Exception {
+        List<Double> latencies = Collections.synchronizedList(new ArrayList<>());
+        int createdEvents = UPDATED_EVENTS / UPDATED_PER_CREATED;
+        CountDownLatch created = new CountDownLatch(createdEvents);
+        long[] publishedAt = new long[1];
+
+        RecordingHandler createdHandler = new RecordingHandler(EventType.NODE_CREATED);
+        createdHandler.setAction(event -> {
+            latencies.add((System.nanoTime() - publishedAt[0]) / 1_000_000.0);
+            created.countDown();
+        });
+        RecordingHandler slowUpdatedHandler = new RecordingHandler(EventType.NODE_UPDATED);
+        slowUpdatedHandler.setAction(event -> Thread.sleep(SLOW_HANDLER_MILLIS));
+
+        List<RepoEvent<DataAttributes<Resource>>> workload = new ArrayList<>();
+        for (int i = 0; i < UPDATED_EVENTS; i++) {
+            workload.add(TestEvents.nodeEvent(TestEvents.NODE_UPDATED, "flood-" + i));
+            if (i % UPDATED_PER_CREATED == UPDATED_PER_CREATED - 1) {
+                workload.add(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "html-" + i));
+            }
+        }
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EventHandlingExecutor direct = new DirectEventHandlingExecutor(List.of(createdHandler, slowUpdatedHandler));
+        EventHandlingExecutor executor = lanes
+                ? new PriorityLaneEventHandlingExecutor(direct, priority(), meterRegistry)
+                : direct;
+        try {
+            publishedAt[0] = System.nanoTime();
+            workload.forEach(executor::executeEventHandlers);
+            long timeoutMillis = UPDATED_EVENTS * SLOW_HANDLER_MILLIS * 10 + 30_000;
+            Assertions.assertTrue(created.await(timeoutMillis, TimeUnit.MILLISECONDS),
+                    "Created events were not handled within " + timeoutMillis + " ms");
+        } finally {
+            if (executor instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+
+        double[] sorted = latencies.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        LOGGER.info("{}: {} Created events among {} Updated events, {} Updated events shed, latency p50 {} ms, p99 {} ms",
+                label, sorted.length, UPDATED_EVENTS,
+                lanes ? (long) meterRegistry.get("alfresco.events.lane.shed").tag("lane", "low").counter().count() : 0,
+                String.format("%.1f", percentile(sorted, 0.50)),
+                String.format("%.1f", percentile(sorted, 0.99)));
+        return sorted;
+    }
+
+    private static double percentile(double[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static EventDispatchProperties.Priority priority() {
+        EventDispatchProperties.Priority priority = new EventDispatchProperties.Priority();
+        priority.setEnabled(true);
+        priority.setDefaultLane("normal");
+        priority.getLanes().put("high", lane(8, LOW_LANE_CAPACITY * 10, EventDispatchProperties.LaneOverflowPolicy.BLOCK,
+                TestEvents.NODE_CREATED));
+        priority.getLanes().put("normal", lane(3, LOW_LANE_CAPACITY * 10, EventDispatchProperties.LaneOverflowPolicy.BLOCK));
+        priority.getLanes().put("low", lane(1, LOW_LANE_CAPACITY, EventDispatchProperties.LaneOverflowPolicy.SHED,
+                TestEvents.NODE_UPDATED));
+        return priority;
+    }
+
+    private static EventDispatchProperties.LaneSettings lane(int weight, int capacity,
+                                                             EventDispatchProperties.LaneOverflowPolicy overflowPolicy,
+                                                             String... eventTypes) {
+        EventDispatchProperties.LaneSettings lane = new EventDispatchProperties.LaneSettings();
+        lane.setWeight(weight);
+        lane.setCapacity(capacity);
+        lane.setOverflowPolicy(overflowPolicy);
+        lane.setEventTypes(List.of(eventTypes));
+        return lane;
+    }
+
+}
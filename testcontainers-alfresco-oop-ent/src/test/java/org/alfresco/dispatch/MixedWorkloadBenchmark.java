@@ -0,0 +1,223 @@
+package org.alfresco.dispatch;
+
+import jakarta.jms.*;
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.event.sdk.handling.filter.MimeTypeFilter;
+import org.alfresco.event.sdk.handling.handler.OnNodeCreatedEventHandler;
+import org.alfresco.event.sdk.handling.handler.OnNodeUpdatedEventHandler;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.NodeResource;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.alfresco.support.TestEvents;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed workload sent through an embedded ActiveMQ broker to the application: a flood of {@code Updated} events,
+ * processed by a slow handler, interleaved with {@code Created} events for HTML files, whose latency from
+ * publication to handling is measured.
+ * <p>
+ * Subclasses start the application with different dispatch configurations, importing {@link BenchmarkHandlers}.
+ * Benchmarks are tagged {@code benchmark} and excluded from the default build, run them with {@code mvn test -Pbenchmark}.
+ * They run in isolation, as concurrent tests would distort the measured latencies.
+ */
+@Tag("benchmark")
+@Isolated
+public abstract class MixedWorkloadBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MixedWorkloadBenchmark.class);
+
+    private static final String TOPIC = "alfresco.repo.event2";
+    private static final int UPDATED_EVENTS = 2000;
+    private static final int UPDATED_PER_CREATED = 20;
+    private static final long SLOW_HANDLER_MILLIS = 2;
+
+    private static final Map<String, Long> SENT_AT = new ConcurrentHashMap<>();
+
+    private static BrokerService broker;
+    private static String brokerUrl;
+
+    @Autowired
+    private LatencyRecordingHandler latencyRecordingHandler;
+
+    @DynamicPropertySource
+    static void dynamicProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.activemq.brokerUrl", () -> brokerUrl);
+    }
+
+    @BeforeAll
+    static void startBroker() throws Exception {
+        broker = new BrokerService();
+        broker.setPersistent(false);
+        broker.setUseJmx(false);
+        broker.addConnector("tcp://localhost:0");
+        broker.start();
+        broker.waitUntilStarted();
+        brokerUrl = broker.getTransportConnectors().get(0).getPublishableConnectString();
+    }
+
+    @AfterAll
+    static void stopBroker() throws Exception {
+        broker.stop();
+    }
+
+    /**
+     * Publishes the mixed workload and returns the latency percentiles of the {@code Created} events.
+     *
+     * @param label the name of the configuration, for the report
+     * @return the sorted latencies of the {@code Created} events, in milliseconds
+     * @throws Exception if the workload cannot be published
+     */
+    protected double[] runMixedWorkload(String label) throws Exception {
+        ConnectionFactory connectionFactory = new ActiveMQConnectionFactory(brokerUrl);
+        try (Connection connection = connectionFactory.createConnection()) {
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            MessageProducer producer = session.createProducer(session.createTopic(TOPIC));
+            producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+
+            awaitSubscription(session, producer);
+
+            int createdEvents = UPDATED_EVENTS / UPDATED_PER_CREATED;
+            CountDownLatch created = latencyRecordingHandler.expect(createdEvents);
+            for (int i = 0; i < UPDATED_EVENTS; i++) {
+                producer.send(session.createTextMessage(TestEvents.nodeEventJson(TestEvents.NODE_UPDATED,
+                        UUID.randomUUID().toString(), "flood.txt", "text/plain", List.of("GROUP_EVERYONE"), List.of())));
+                if (i % UPDATED_PER_CREATED == 0) {
+                    send(session, producer);
+                }
+            }
+            long timeoutMillis = UPDATED_EVENTS * SLOW_HANDLER_MILLIS * 10 + 30_000;
+            if (!created.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Created events were not handled within " + timeoutMillis + " ms");
+            }
+        }
+
+        double[] latencies = latencyRecordingHandler.latenciesMillis();
+        Arrays.sort(latencies);
+        LOGGER.info("{}: {} Created events among {} Updated events, latency p50 {} ms, p99 {} ms, max {} ms",
+                label, latencies.length, UPDATED_EVENTS,
+                String.format("%.1f", percentile(latencies, 0.50)),
+                String.format("%.1f", percentile(latencies, 0.99)),
+                String.format("%.1f", latencies[latencies.length - 1]));
+        return latencies;
+    }
+
+    protected static double percentile(double[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * The application subscribes to the topic asynchronously, so warm-up events are published until one is handled.
+     */
+    private void awaitSubscription(Session session, MessageProducer producer) throws JMSException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        CountDownLatch warmUp = latencyRecordingHandler.expect(1);
+        while (!warmUp.await(200, TimeUnit.MILLISECONDS)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("The application did not subscribe to " + TOPIC);
+            }
+            send(session, producer);
+        }
+        // Let the warm-up events sent while subscribing drain
+        Thread.sleep(500);
+    }
+
+    private static void send(Session session, MessageProducer producer) throws JMSException {
+        String nodeId = UUID.randomUUID().toString();
+        String json = TestEvents.nodeEventJson(TestEvents.NODE_CREATED, nodeId, nodeId + ".html", "text/html",
+                List.of("GROUP_EVERYONE"), List.of());
+        SENT_AT.put(nodeId, System.nanoTime());
+        producer.send(session.createTextMessage(json));
+    }
+
+    /**
+     * Handlers of the mixed workload.
+     */
+    @TestConfiguration
+    static class BenchmarkHandlers {
+
+        @Bean
+        LatencyRecordingHandler latencyRecordingHandler() {
+            return new LatencyRecordingHandler();
+        }
+
+        @Bean
+        SlowUpdatedHandler slowUpdatedHandler() {
+            return new SlowUpdatedHandler();
+        }
+    }
+
+    /**
+     * Records the time between the publication and the handling of {@code Created} events for HTML files.
+     */
+    static class LatencyRecordingHandler implements OnNodeCreatedEventHandler {
+
+        private final List<Double> latencies = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch expected = new CountDownLatch(0);
+
+        CountDownLatch expect(int count) {
+            latencies.clear();
+            expected = new CountDownLatch(count);
+            return expected;
+        }
+
+        double[] latenciesMillis() {
+            synchronized (latencies) {
+                return latencies.stream().mapToDouble(Double::doubleValue).toArray();
+            }
+        }
+
+        @Override
+        public void handleEvent(RepoEvent<DataAttributes<Resource>> event) {
+            Long sentAt = SENT_AT.remove(((NodeResource) event.getData().getResource()).getId());
+            if (sentAt != null) {
+                latencies.add((System.nanoTime() - sentAt) / 1_000_000.0);
+                expected.countDown();
+            }
+        }
+
+        @Override
+        public EventFilter getEventFilter() {
+            return MimeTypeFilter.of("text/html");
+        }
+    }
+
+    /**
+     * Simulates a handler doing some work for every update, e.g. calling an external service.
+     */
+    static class SlowUpdatedHandler implements OnNodeUpdatedEventHandler {
+
+        @Override
+        public EventFilter getEventFilter() {
+            return event -> true;
+        }
+
+        @Override
+        public void handleEvent(RepoEvent<DataAttributes<Resource>> event) {
+            try {
+                Thread.sleep(SLOW_HANDLER_MILLIS);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}
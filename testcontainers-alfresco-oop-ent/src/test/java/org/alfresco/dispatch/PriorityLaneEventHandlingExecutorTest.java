@@ -0,0 +1,173 @@
+package org.alfresco.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.alfresco.event.sdk.handling.EventHandlingExecutor;
+import org.alfresco.repo.event.v1.model.NodeResource;
+import org.alfresco.support.TestEvents;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit test for {@link PriorityLaneEventHandlingExecutor}.
+ * Assertions depend on timing, so the test runs in isolation.
+ */
+@Isolated
+public class PriorityLaneEventHandlingExecutorTest {
+
+    private final CountDownLatch firstEventStarted = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> dispatchedTypes = new CopyOnWriteArrayList<>();
+    private PriorityLaneEventHandlingExecutor executor;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        executor.close();
+    }
+
+    @Test
+    void testClassifiesEventTypesIntoLanes() {
+        executor = new PriorityLaneEventHandlingExecutor(event -> {
+        }, priority(), new SimpleMeterRegistry());
+
+        Assertions.assertEquals("high", executor.laneNameOf(TestEvents.NODE_CREATED));
+        Assertions.assertEquals("low", executor.laneNameOf(TestEvents.NODE_UPDATED));
+        Assertions.assertEquals("normal", executor.laneNameOf("org.alfresco.event.assoc.child.Created"),
+                "Event types not listed should be classified in the default lane");
+    }
+
+    @Test
+    void testHighPriorityEventsOvertakeLowPriorityFlood() throws InterruptedException {
+        EventHandlingExecutor blockingDelegate = event -> {
+            if (firstEventStarted.getCount() > 0) {
+                firstEventStarted.countDown();
+                awaitRelease();
+            }
+            dispatchedTypes.add(event.getType());
+        };
+        executor = new PriorityLaneEventHandlingExecutor(blockingDelegate, priority(), new SimpleMeterRegistry());
+
+        // The first event keeps the dispatcher busy while the flood is queued
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_UPDATED, "node-0"));
+        Assertions.assertTrue(firstEventStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 20; i++) {
+            executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_UPDATED, "node-" + i));
+        }
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "html-1"));
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "html-2"));
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatchedTypes.size() < 23 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(23, dispatchedTypes.size(), "Every event should be dispatched");
+        // After the blocking event, the high lane (weight 8) is served twice before the low lane (weight 1) is served once
+        Assertions.assertEquals(List.of(TestEvents.NODE_UPDATED, TestEvents.NODE_CREATED, TestEvents.NODE_CREATED),
+                dispatchedTypes.subList(0, 3), "Created events should overtake the queued Updated events");
+    }
+
+    @Test
+    void testEventsOfNodeKeepTheirOrderAcrossLanes() throws InterruptedException {
+        List<String> dispatched = new CopyOnWriteArrayList<>();
+        EventHandlingExecutor blockingDelegate = event -> {
+            if (firstEventStarted.getCount() > 0) {
+                firstEventStarted.countDown();
+                awaitRelease();
+            }
+            dispatched.add(event.getType() + " " + ((NodeResource) event.getData().getResource()).getId());
+        };
+        EventDispatchProperties.Priority priority = priority();
+        priority.getLanes().get("high").setEventTypes(List.of(TestEvents.NODE_CREATED, TestEvents.NODE_DELETED));
+        executor = new PriorityLaneEventHandlingExecutor(blockingDelegate, priority, new SimpleMeterRegistry());
+
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_UPDATED, "node-0"));
+        Assertions.assertTrue(firstEventStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 3; i++) {
+            executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_UPDATED, "node-" + i));
+        }
+        // Classified in the high lane by type, but node-2 has an Updated event waiting in the low lane
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_DELETED, "node-2"));
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "html-1"));
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatched.size() < 6 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(6, dispatched.size(), "Every event should be dispatched");
+        Assertions.assertEquals(TestEvents.NODE_CREATED + " html-1", dispatched.get(1),
+                "Events of other nodes should still be dispatched by priority");
+        Assertions.assertTrue(dispatched.indexOf(TestEvents.NODE_UPDATED + " node-2") < dispatched.indexOf(TestEvents.NODE_DELETED + " node-2"),
+                "Deleted event should not overtake the Updated event of the same node: " + dispatched);
+    }
+
+    @Test
+    void testFullSheddingLaneDoesNotHoldBackOtherLanes() throws InterruptedException {
+        EventHandlingExecutor blockingDelegate = event -> {
+            if (firstEventStarted.getCount() > 0) {
+                firstEventStarted.countDown();
+                awaitRelease();
+            }
+            dispatchedTypes.add(event.getType());
+        };
+        EventDispatchProperties.Priority priority = priority();
+        priority.getLanes().get("low").setCapacity(2);
+        priority.getLanes().get("low").setOverflowPolicy(EventDispatchProperties.LaneOverflowPolicy.SHED);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        executor = new PriorityLaneEventHandlingExecutor(blockingDelegate, priority, meterRegistry);
+
+        executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_UPDATED, "node-0"));
+        Assertions.assertTrue(firstEventStarted.await(5, TimeUnit.SECONDS));
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            for (int i = 1; i <= 5; i++) {
+                executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_UPDATED, "node-" + i));
+            }
+            executor.executeEventHandlers(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "html-1"));
+        }, "Full lane should not hold back the consumption of events");
+        Assertions.assertEquals(3.0, meterRegistry.get("alfresco.events.lane.shed").tag("lane", "low").counter().count(),
+                "Events beyond the capacity of the lane should be shed");
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatchedTypes.size() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(List.of(TestEvents.NODE_UPDATED, TestEvents.NODE_CREATED, TestEvents.NODE_UPDATED, TestEvents.NODE_UPDATED),
+                dispatchedTypes, "Created event should be dispatched, ahead of the queued Updated events");
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static EventDispatchProperties.Priority priority() {
+        EventDispatchProperties.Priority priority = new EventDispatchProperties.Priority();
+        priority.setEnabled(true);
+        priority.setDefaultLane("normal");
+        priority.getLanes().put("high", lane(8, TestEvents.NODE_CREATED));
+        priority.getLanes().put("normal", lane(3));
+        priority.getLanes().put("low", lane(1, TestEvents.NODE_UPDATED));
+        return priority;
+    }
+
+    private static EventDispatchProperties.LaneSettings lane(int weight, String... eventTypes) {
+        EventDispatchProperties.LaneSettings lane = new EventDispatchProperties.LaneSettings();
+        lane.setWeight(weight);
+        lane.setEventTypes(List.of(eventTypes));
+        return lane;
+    }
+
+}
@@ -0,0 +1,33 @@
+package org.alfresco.dispatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Mixed workload benchmark with priority lanes: {@code Created} events are classified in the high lane
+ * and the flood of {@code Updated} events in the low lane.
+ * <p>
+ * Handlers share a single dispatching thread (bulkheads are disabled), so the latency of {@code Created} events
+ * only depends on the lanes. The p99 target can be changed with the {@code benchmark.created.p99.millis} system property.
+ */
+@SpringBootTest(properties = {
+        "alfresco.events.dispatch.bulkhead.enabled=false",
+        "alfresco.events.dispatch.priority.enabled=true"
+})
+@Import(MixedWorkloadBenchmark.BenchmarkHandlers.class)
+public class PriorityLanesBenchmarkTest extends MixedWorkloadBenchmark {
+
+    private static final double P99_TARGET_MILLIS = Double.parseDouble(System.getProperty("benchmark.created.p99.millis", "250"));
+
+    @Test
+    void testCreatedLatencyUnderUpdatedFlood() throws Exception {
+        double[] latencies = runMixedWorkload("Priority lanes");
+
+        double p99 = percentile(latencies, 0.99);
+        Assertions.assertTrue(p99 <= P99_TARGET_MILLIS,
+                "Created events p99 latency should be below " + P99_TARGET_MILLIS + " ms, but it is " + p99 + " ms");
+    }
+
+}
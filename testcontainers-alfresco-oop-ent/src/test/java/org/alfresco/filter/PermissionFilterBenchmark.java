@@ -0,0 +1,116 @@
+package org.alfresco.filter;
+
+import org.alfresco.enterprise.repo.event.v1.model.EnterpriseEventData;
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.alfresco.support.TestEvents;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison between {@link PermissionFilter} and a naive filter scanning {@code Set<String>} authorities.
+ * <p>
+ * Every invocation routes one Enterprise event to all the tenants, as the event handling executor does
+ * when each tenant has its own handler. Run it from the module folder with:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     "-Dexec.args=-classpath %classpath org.alfresco.filter.PermissionFilterBenchmark"
+ * </pre>
+ * The benchmark runs in a separate JVM ({@code exec:exec} rather than {@code exec:java}), as the JVM forked by JMH
+ * inherits the {@code java.class.path} of its parent, which must be the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermissionFilterBenchmark {
+
+    private static final int AUTHORITIES = 5_000;
+    private static final int EVENTS = 256;
+
+    @Param({"8", "64"})
+    private int tenants;
+
+    @Param({"10", "100"})
+    private int readersPerEvent;
+
+    private List<EventFilter> bitsetFilters;
+    private List<EventFilter> naiveFilters;
+    private RepoEvent<DataAttributes<Resource>>[] events;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Random random = new Random(42);
+        AuthorityIndex authorityIndex = new AuthorityIndex();
+        bitsetFilters = new ArrayList<>();
+        naiveFilters = new ArrayList<>();
+        for (int tenant = 0; tenant < tenants; tenant++) {
+            Set<String> tenantAuthorities = randomAuthorities(random, 20);
+            bitsetFilters.add(PermissionFilter.of(authorityIndex, tenantAuthorities));
+            naiveFilters.add(naiveFilter(tenantAuthorities));
+        }
+        events = new RepoEvent[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            events[i] = TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-" + i, "test.html", "text/html",
+                    randomAuthorities(random, readersPerEvent), randomAuthorities(random, 5));
+        }
+    }
+
+    @Benchmark
+    public void bitsetRouting(Blackhole blackhole) {
+        route(bitsetFilters, blackhole);
+    }
+
+    @Benchmark
+    public void naiveSetRouting(Blackhole blackhole) {
+        route(naiveFilters, blackhole);
+    }
+
+    private void route(List<EventFilter> filters, Blackhole blackhole) {
+        RepoEvent<DataAttributes<Resource>> event = events[next++ & (EVENTS - 1)];
+        for (EventFilter filter : filters) {
+            blackhole.consume(filter.test(event));
+        }
+    }
+
+    private static EventFilter naiveFilter(Set<String> tenantAuthorities) {
+        return event -> {
+            if (!(event.getData() instanceof EnterpriseEventData<?> data)) {
+                return false;
+            }
+            for (String reader : data.getResourceReaderAuthorities()) {
+                if (tenantAuthorities.contains(reader) && !data.getResourceDeniedAuthorities().contains(reader)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static Set<String> randomAuthorities(Random random, int count) {
+        Set<String> authorities = new HashSet<>();
+        while (authorities.size() < count) {
+            authorities.add("GROUP_" + random.nextInt(AUTHORITIES));
+        }
+        return authorities;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PermissionFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
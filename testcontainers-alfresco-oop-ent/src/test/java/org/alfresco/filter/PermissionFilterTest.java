@@ -0,0 +1,86 @@
+package org.alfresco.filter;
+
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.alfresco.support.TestEvents;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * Unit test for {@link PermissionFilter} and {@link AuthorityIndex}.
+ * <p>
+ * Events are built from JSON, so no Alfresco repository is required.
+ */
+public class PermissionFilterTest {
+
+    private AuthorityIndex authorityIndex;
+
+    @BeforeEach
+    void setUpEach() {
+        authorityIndex = new AuthorityIndex();
+    }
+
+    @Test
+    void testAcceptsEventReadableByTenant() {
+        EventFilter filter = PermissionFilter.of(authorityIndex, "GROUP_tenant-a", "tenant-a-admin");
+
+        Assertions.assertTrue(filter.test(enterpriseEvent(List.of("GROUP_tenant-a", "GROUP_other"), List.of())),
+                "Event readable by a tenant group should be accepted");
+        Assertions.assertFalse(filter.test(enterpriseEvent(List.of("GROUP_other", "unknown-user"), List.of())),
+                "Event not readable by any tenant authority should be rejected");
+    }
+
+    @Test
+    void testDeniedAuthoritiesOverrideReaders() {
+        EventFilter filter = PermissionFilter.of(authorityIndex, "GROUP_tenant-a");
+
+        Assertions.assertFalse(filter.test(enterpriseEvent(List.of("GROUP_tenant-a"), List.of("GROUP_tenant-a"))),
+                "Event denied to the only readable tenant authority should be rejected");
+    }
+
+    @Test
+    void testRejectsCommunityEvent() {
+        EventFilter filter = PermissionFilter.of(authorityIndex, "GROUP_EVERYONE");
+
+        Assertions.assertFalse(filter.test(TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1")),
+                "Event without Enterprise permissions should be rejected");
+    }
+
+    @Test
+    void testFiltersForSeveralTenantsShareTheEventEncoding() {
+        EventFilter tenantA = PermissionFilter.of(authorityIndex, "GROUP_tenant-a");
+        RepoEvent<DataAttributes<Resource>> event = enterpriseEvent(List.of("GROUP_tenant-b"), List.of());
+        Assertions.assertFalse(tenantA.test(event), "Tenant A should not read the event");
+
+        // Registering a tenant after the event was encoded must not reuse the stale encoding
+        EventFilter tenantB = PermissionFilter.of(authorityIndex, "GROUP_tenant-b");
+        Assertions.assertTrue(tenantB.test(event), "Tenant B should read the event");
+        Assertions.assertEquals(2, authorityIndex.size(), "Only tenant authorities should be registered");
+    }
+
+    @Test
+    void testEventsWithSameIdAreEncodedSeparately() {
+        EventFilter filter = PermissionFilter.of(authorityIndex, "GROUP_tenant-a");
+
+        // Merged events keep the id of the first event but carry the permissions of the last one
+        Assertions.assertTrue(filter.test(enterpriseEvent("event-1", List.of("GROUP_tenant-a"), List.of())),
+                "Event readable by the tenant should be accepted");
+        Assertions.assertFalse(filter.test(enterpriseEvent("event-1", List.of("GROUP_tenant-a"), List.of("GROUP_tenant-a"))),
+                "Event with the same id but denied to the tenant should be rejected");
+    }
+
+    private static RepoEvent<DataAttributes<Resource>> enterpriseEvent(String eventId, List<String> readers, List<String> denied) {
+        return TestEvents.nodeEvent(TestEvents.nodeEventTree(TestEvents.NODE_CREATED, "node-1", "test.html", "text/html",
+                readers, denied).put("id", eventId));
+    }
+
+    private static RepoEvent<DataAttributes<Resource>> enterpriseEvent(List<String> readers, List<String> denied) {
+        return TestEvents.nodeEvent(TestEvents.NODE_CREATED, "node-1", "test.html", "text/html", readers, denied);
+    }
+
+}
@@ -1,45 +1,52 @@
 package org.alfresco.handler;
 
-import ch.qos.logback.classic.LoggerContext;
-import ch.qos.logback.classic.spi.ILoggingEvent;
-import ch.qos.logback.core.read.ListAppender;
 import org.alfresco.rest.AlfrescoClient;
+import org.alfresco.rest.AlfrescoClient.CreatedNode;
+import org.alfresco.support.CorrelatedLogAppender;
+import org.alfresco.support.SharedAlfresco;
 import org.alfresco.testcontainers.AlfrescoContainer;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
-import org.testcontainers.activemq.ActiveMQContainer;
-import org.testcontainers.utility.DockerImageName;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Integration test for {@link HtmlContentCreatedHandler} using Spring Boot and Testcontainers.
  * <p>
  * This class verifies the behavior of the handler when creating HTML and non-HTML files in the Alfresco repository.
- * It uses Testcontainers to start an Alfresco instance and an ActiveMQ broker for testing the event handling.
+ * It uses the Alfresco instance and ActiveMQ broker of {@link SharedAlfresco} for testing the event handling.
+ * Tests run concurrently: each one creates its own folder and uniquely named files, and waits for the messages
+ * logged by the handler for its own nodes.
  */
 @SpringBootTest
+@Execution(ExecutionMode.CONCURRENT)
 public class HtmlContentCreatedHandlerTest {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HtmlContentCreatedHandlerTest.class);
 
-    // Containers are static to ensure they are shared across tests and only started once
-    private static AlfrescoContainer<?> alfrescoContainer;
-    private static ActiveMQContainer activemqContainer;
+    // Maximum time between the creation of a node and the handling of its event
+    private static final Duration EVENT_TIMEOUT = Duration.ofSeconds(30);
 
-    // In-memory log appender to capture logs for assertion
-    private ListAppender<ILoggingEvent> listAppender;
+    // In-memory log appender capturing the handler messages by node for assertion
+    private final CorrelatedLogAppender handlerLog = CorrelatedLogAppender.of(HtmlContentCreatedHandler.class, HtmlContentCreatedHandler.MDC_NODE_ID);
 
     @Autowired
     private AlfrescoClient restClient;
 
-    @Autowired
-    private HtmlContentCreatedHandler handler;
+    // Folder of the running test, so tests do not share nodes
+    private CreatedNode testFolder;
 
     /**
      * Registers dynamic properties such as the ActiveMQ broker URL.
@@ -48,47 +55,22 @@ public class HtmlContentCreatedHandlerTest {
      */
     @DynamicPropertySource
     static void dynamicProperties(DynamicPropertyRegistry registry) {
-        registry.add("spring.activemq.brokerUrl", () ->
-                "tcp://" + activemqContainer.getHost() + ":" + activemqContainer.getMappedPort(61616));
-    }
-
-    /**
-     * Initializes resources before all tests, including starting containers.
-     */
-    @BeforeAll
-    static void setUp() {
-        // Spawn Alfresco Enterprise Repository
-        alfrescoContainer = new AlfrescoContainer<>(
-                DockerImageName.parse("quay.io/alfresco/alfresco-content-repository:23.2.1"))
-                .withMessagingEnabled();
-        alfrescoContainer.start();
-        activemqContainer = alfrescoContainer.getActivemqContainer();
+        registry.add("spring.activemq.brokerUrl", SharedAlfresco::brokerUrl);
     }
 
     /**
-     * Sets up the environment before each test, configuring the REST client and initializing log capturing.
+     * Sets up the environment before each test, configuring the REST client and creating the folder of the test.
+     *
+     * @param testInfo the running test
+     * @throws IOException if there is an issue creating the folder in Alfresco
      */
     @BeforeEach
-    void setUpEach() {
+    void setUpEach(TestInfo testInfo) throws IOException {
+        AlfrescoContainer<?> alfrescoContainer = SharedAlfresco.container();
         restClient.setAlfrescoUrl("http", alfrescoContainer.getHost(), alfrescoContainer.getMappedPort(8080), "alfresco");
 
-        // Configure in-memory log appender to capture logs for verification
-        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
-        listAppender = new ListAppender<>();
-        listAppender.setContext(loggerContext);
-        listAppender.start();
-
-        Logger logger = LoggerFactory.getLogger(HtmlContentCreatedHandler.class);
-        ((ch.qos.logback.classic.Logger) logger).addAppender(listAppender);
-    }
-
-    /**
-     * Cleans up the log appender after each test to prevent memory leaks.
-     */
-    @AfterEach
-    void tearDown() {
-        Logger logger = LoggerFactory.getLogger(HtmlContentCreatedHandler.class);
-        ((ch.qos.logback.classic.Logger) logger).detachAppender(listAppender);
+        String testName = testInfo.getTestMethod().map(Method::getName).orElse("test");
+        testFolder = inAlfresco(() -> restClient.createFolderInAlfresco(uniqueName(testName, "")));
     }
 
     /**
@@ -97,32 +79,24 @@ public class HtmlContentCreatedHandlerTest {
      * It ensures the handler logs the correct message when processing an HTML file creation event.
      *
      * @throws IOException          if there is an issue creating the file in Alfresco
-     * @throws InterruptedException if the thread is interrupted while waiting for log processing
+     * @throws InterruptedException if the thread is interrupted while waiting for the handler
      */
     @Test
     void testHandleEventForCreatedHtmlFile() throws IOException, InterruptedException {
-        try {
-            String filename = "test.html";
-            String nodeName = restClient.createHtmlFileInAlfresco(filename);
-            Assertions.assertTrue(nodeName.contains(filename), "Node name should contain 'test.html'");
-        } catch (IOException ioException) {
-            LOGGER.error("Alfresco container logs:\n{}", alfrescoContainer.getLogs());
-            throw ioException;
-        }
+        String filename = uniqueName("test", ".html");
+        CreatedNode node = inAlfresco(() -> restClient.createHtmlFileInAlfresco(testFolder.id(), filename));
+        Assertions.assertEquals(filename, node.name(), "Node name should be " + filename);
 
-        // Allow some time for the log message to be processed by the handler
-        Thread.sleep(1000);
+        // Assert that the correct log message was captured for the node
+        List<String> messages = handlerLog.awaitMessages(node.id(), 1, EVENT_TIMEOUT);
+        Assertions.assertFalse(messages.isEmpty(), "Log message should not be empty");
+        Assertions.assertEquals("An HTML content named " + filename + " has been created!", messages.get(0),
+                "Log message should indicate the creation of " + filename);
 
-        // Assert that the correct log message was captured
-        Assertions.assertFalse(listAppender.list.isEmpty(), "Log message should not be empty");
-        ILoggingEvent logEvent = listAppender.list.get(0);
-        Assertions.assertEquals("An HTML content named test.html has been created!", logEvent.getFormattedMessage(),
-                "Log message should indicate the creation of 'test.html'");
         // Assert the event is including Enterprise information
-        logEvent = listAppender.list.get(1);
-        Assertions.assertTrue(logEvent.getFormattedMessage().startsWith("Permissions - reader authorities:"),
-                "Expected result to start with 'Permissions - reader authorities:', but it starts with " + logEvent.getFormattedMessage());
-
+        messages = handlerLog.awaitMessages(node.id(), 2, EVENT_TIMEOUT);
+        Assertions.assertTrue(messages.size() > 1 && messages.get(1).startsWith("Permissions - reader authorities:"),
+                "Expected result to start with 'Permissions - reader authorities:', but messages are " + messages);
     }
 
     /**
@@ -131,31 +105,70 @@ public class HtmlContentCreatedHandlerTest {
      * It ensures the handler does not log a message when processing a non-HTML file creation event.
      *
      * @throws IOException          if there is an issue creating the file in Alfresco
-     * @throws InterruptedException if the thread is interrupted while waiting for log processing
+     * @throws InterruptedException if the thread is interrupted while waiting for the handler
      */
     @Test
     void testIgnoreEventForCreatedTxtFile() throws IOException, InterruptedException {
-        try {
-            String filename = "test.txt";
-            String nodeName = restClient.createTxtFileInAlfresco(filename);
-            Assertions.assertTrue(nodeName.contains(filename), "Node name should contain 'test.txt'");
-        } catch (IOException ioException) {
-            LOGGER.error("Alfresco container logs:\n{}", alfrescoContainer.getLogs());
-            throw ioException;
-        }
+        String filename = uniqueName("test", ".txt");
+        CreatedNode node = inAlfresco(() -> restClient.createTxtFileInAlfresco(testFolder.id(), filename));
+        Assertions.assertEquals(filename, node.name(), "Node name should be " + filename);
 
-        // Allow some time for the log message to be processed
-        Thread.sleep(1000);
+        // Events are handled in publication order: once an HTML file created afterwards has been handled,
+        // the event of the TXT file has been handled too
+        CreatedNode marker = inAlfresco(() -> restClient.createHtmlFileInAlfresco(testFolder.id(), uniqueName("marker", ".html")));
+        Assertions.assertFalse(handlerLog.awaitMessages(marker.id(), 1, EVENT_TIMEOUT).isEmpty(),
+                "Log message should not be empty for the HTML file created afterwards");
 
         // Assert that no log message was captured since it's not an HTML file
-        Assertions.assertTrue(listAppender.list.isEmpty(), "Log message should be empty for non-HTML files");
+        Assertions.assertTrue(handlerLog.messagesOf(node.id()).isEmpty(), "Log message should be empty for non-HTML files");
     }
 
     /**
-     * Stops the containers after all tests have run to clean up resources.
+     * Test the handler's behavior when several HTML files are created in Alfresco at once.
+     * <p>
+     * It ensures the handler logs one message for each file, whatever the order of the events.
+     *
+     * @throws IOException          if there is an issue creating the files in Alfresco
+     * @throws InterruptedException if the thread is interrupted while waiting for the handler
+     */
+    @Test
+    void testHandleEventsForCreatedHtmlFiles() throws IOException, InterruptedException {
+        List<CreatedNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String filename = uniqueName("page-" + i, ".html");
+            nodes.add(inAlfresco(() -> restClient.createHtmlFileInAlfresco(testFolder.id(), filename)));
+        }
+
+        for (CreatedNode node : nodes) {
+            List<String> messages = handlerLog.awaitMessages(node.id(), 1, EVENT_TIMEOUT);
+            Assertions.assertFalse(messages.isEmpty(), "Log message should not be empty for " + node.name());
+            Assertions.assertEquals("An HTML content named " + node.name() + " has been created!", messages.get(0),
+                    "Log message should indicate the creation of " + node.name());
+        }
+    }
+
+    /**
+     * Returns a name that is not used by any other test, as tests share the repository.
+     */
+    private static String uniqueName(String prefix, String extension) {
+        return prefix + "-" + UUID.randomUUID() + extension;
+    }
+
+    /**
+     * Calls the Alfresco REST API, logging the container logs if the call fails.
      */
-    @AfterAll
-    static void tearDownAll() {
-        alfrescoContainer.stop();
+    private static <T> T inAlfresco(AlfrescoCall<T> call) throws IOException {
+        try {
+            return call.execute();
+        } catch (IOException ioException) {
+            LOGGER.error("Alfresco container logs:\n{}", SharedAlfresco.container().getLogs());
+            throw ioException;
+        }
     }
+
+    @FunctionalInterface
+    private interface AlfrescoCall<T> {
+        T execute() throws IOException;
+    }
+
 }
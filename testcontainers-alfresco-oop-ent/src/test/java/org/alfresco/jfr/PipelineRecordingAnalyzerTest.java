@@ -0,0 +1,90 @@
+package org.alfresco.jfr;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Unit test for {@link PipelineRecordingAnalyzer}.
+ */
+public class PipelineRecordingAnalyzerTest {
+
+    @Test
+    void testPercentileUsesNearestRank() {
+        long[] sorted = {10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
+
+        Assertions.assertEquals(50, PipelineRecordingAnalyzer.percentile(sorted, 0.50));
+        Assertions.assertEquals(90, PipelineRecordingAnalyzer.percentile(sorted, 0.90));
+        Assertions.assertEquals(100, PipelineRecordingAnalyzer.percentile(sorted, 0.99));
+        Assertions.assertEquals(10, PipelineRecordingAnalyzer.percentile(sorted, 0.0), "Lowest quantile should be the minimum");
+        Assertions.assertEquals(7, PipelineRecordingAnalyzer.percentile(new long[]{7}, 0.99));
+    }
+
+    @Test
+    void testOverlapsPause() {
+        // Pauses [100, 200] and [300, 310]
+        long[] starts = {100, 300};
+        long[] maxEnds = {200, 310};
+
+        Assertions.assertTrue(PipelineRecordingAnalyzer.overlapsPause(150, 160, starts, maxEnds), "Execution within a pause");
+        Assertions.assertTrue(PipelineRecordingAnalyzer.overlapsPause(50, 100, starts, maxEnds), "Execution ending when a pause starts");
+        Assertions.assertTrue(PipelineRecordingAnalyzer.overlapsPause(190, 400, starts, maxEnds), "Execution spanning several pauses");
+        Assertions.assertFalse(PipelineRecordingAnalyzer.overlapsPause(0, 99, starts, maxEnds), "Execution before every pause");
+        Assertions.assertFalse(PipelineRecordingAnalyzer.overlapsPause(201, 299, starts, maxEnds), "Execution between pauses");
+        Assertions.assertFalse(PipelineRecordingAnalyzer.overlapsPause(311, 400, starts, maxEnds), "Execution after every pause");
+        Assertions.assertFalse(PipelineRecordingAnalyzer.overlapsPause(0, 10, new long[0], new long[0]), "No pause");
+    }
+
+    @Test
+    void testOverlapsLongPauseStartingBeforeShortOne() {
+        // Pauses [0, 1000] and [100, 110]: the last pause starting before the execution is not the one overlapping it
+        long[] starts = {0, 100};
+        long[] maxEnds = {1000, 1000};
+
+        Assertions.assertTrue(PipelineRecordingAnalyzer.overlapsPause(500, 600, starts, maxEnds));
+    }
+
+    @Test
+    void testReadsStagesFromRecording(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("pipeline.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TransformEvent.class);
+            recording.enable(HandlerEvent.class);
+            recording.start();
+            for (int i = 0; i < 3; i++) {
+                TransformEvent transformEvent = new TransformEvent();
+                transformEvent.begin();
+                transformEvent.enterprise = true;
+                transformEvent.payloadLength = 100;
+                transformEvent.payloadMode = "FULL";
+                transformEvent.succeeded = true;
+                transformEvent.commit();
+            }
+            HandlerEvent handlerEvent = new HandlerEvent();
+            handlerEvent.begin();
+            handlerEvent.handler = "AnalyzerTestHandler";
+            handlerEvent.succeeded = true;
+            handlerEvent.commit();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        PipelineRecordingAnalyzer analyzer = new PipelineRecordingAnalyzer();
+        analyzer.read(file);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        analyzer.print(new PrintStream(output, true, StandardCharsets.UTF_8));
+        String report = output.toString(StandardCharsets.UTF_8);
+
+        // Other tests running concurrently may add events to the recording, so only the stages are checked
+        Assertions.assertTrue(report.contains("transform enterprise"), "Report should include the transform stage:\n" + report);
+        Assertions.assertTrue(report.contains("handler AnalyzerTestHandler"), "Report should include the handler stage:\n" + report);
+    }
+
+}
@@ -0,0 +1,117 @@
+package org.alfresco.payload;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.alfresco.enterprise.repo.event.v1.model.EnterpriseEventData;
+import org.alfresco.event.sdk.handling.EventHandlingException;
+import org.alfresco.event.sdk.integration.transformer.EventGenericTransformer;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.NodeResource;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.alfresco.support.TestEvents;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+/**
+ * Unit test for {@link PayloadGuard}, applied by {@link EventGenericTransformer}.
+ */
+public class PayloadGuardTest {
+
+    private final List<OversizedEvent> rejected = new CopyOnWriteArrayList<>();
+    private final EventGenericTransformer transformer =
+            new EventGenericTransformer(new PayloadGuard(4_000, 40_000, 100, 64, 200, rejected::add));
+
+    @Test
+    void testSmallEventIsDeserializedInFull() {
+        RepoEvent<DataAttributes<Resource>> event = transformer.transform(
+                TestEvents.nodeEventJson(TestEvents.NODE_CREATED, "node-1", "index.html", "text/html", List.of("GROUP_EVERYONE"), List.of()));
+
+        Assertions.assertEquals("index.html", ((NodeResource) event.getData().getResource()).getName());
+        Assertions.assertEquals(Set.of("GROUP_EVERYONE"), readers(event));
+        Assertions.assertTrue(rejected.isEmpty());
+    }
+
+    @Test
+    void testEventOverSoftLimitIsTruncated() {
+        String longName = "x".repeat(1_000) + ".html";
+        String json = TestEvents.nodeEventJson(TestEvents.NODE_CREATED, "node-1", longName, "text/html", authorities(300), List.of());
+
+        RepoEvent<DataAttributes<Resource>> event = transformer.transform(json);
+
+        Assertions.assertEquals(TestEvents.NODE_CREATED, event.getType(), "Envelope should be preserved");
+        NodeResource resource = (NodeResource) event.getData().getResource();
+        Assertions.assertEquals("node-1", resource.getId(), "Short values should be preserved");
+        Assertions.assertEquals(64, resource.getName().length(), "Long strings should be cut at the maximum string length");
+        Assertions.assertEquals(Set.copyOf(authorities(300)), readers(event), "Reader authorities should not be truncated");
+        Assertions.assertTrue(rejected.isEmpty());
+    }
+
+    @Test
+    void testDeniedAuthoritiesAreNotTruncated() {
+        List<String> denied = IntStream.range(0, 250).mapToObj(i -> "GROUP_DENIED_" + i).toList();
+        String json = TestEvents.nodeEventJson(TestEvents.NODE_CREATED, "node-1", "index.html", "text/html", List.of("GROUP_EVERYONE"), denied);
+        Assertions.assertTrue(json.length() > 4_000, "Event should be over the soft limit");
+
+        RepoEvent<DataAttributes<Resource>> event = transformer.transform(json);
+
+        Assertions.assertEquals(Set.copyOf(denied), Set.copyOf(((EnterpriseEventData<?>) event.getData()).getResourceDeniedAuthorities()),
+                "Denied authorities beyond the maximum number of entries should be kept, as dropping them widens access");
+        Assertions.assertEquals(Set.of("GROUP_EVERYONE"), readers(event));
+    }
+
+    @Test
+    void testContainersOverSoftLimitAreTruncatedExceptPermissions() {
+        ObjectNode json = TestEvents.nodeEventTree(TestEvents.NODE_CREATED, "node-1", "index.html", "text/html",
+                authorities(150), authorities(150));
+        ObjectNode data = (ObjectNode) json.get("data");
+        ObjectNode resource = (ObjectNode) data.get("resource");
+        ObjectNode properties = resource.putObject("properties");
+        IntStream.range(0, 300).forEach(i -> properties.put("cm:property" + i, "value"));
+        ArrayNode aspectNames = resource.putArray("aspectNames");
+        IntStream.range(0, 300).forEach(i -> aspectNames.add("cm:aspect" + i));
+        ArrayNode securityControls = data.putArray("resourceReaderSecurityControls");
+        authorities(150).forEach(securityControls::add);
+
+        RepoEvent<DataAttributes<Resource>> event = transformer.transform(json.toString());
+
+        NodeResource nodeResource = (NodeResource) event.getData().getResource();
+        Assertions.assertEquals(100, nodeResource.getProperties().size(), "Objects should keep their first fields only");
+        Assertions.assertEquals(100, nodeResource.getAspectNames().size(), "Arrays should keep their first items only");
+        EnterpriseEventData<?> enterpriseData = (EnterpriseEventData<?>) event.getData();
+        Assertions.assertEquals(Set.copyOf(authorities(150)), readers(event), "Reader authorities should not be truncated");
+        Assertions.assertEquals(Set.copyOf(authorities(150)), Set.copyOf(enterpriseData.getResourceDeniedAuthorities()),
+                "Denied authorities should not be truncated");
+        Assertions.assertEquals(Set.copyOf(authorities(150)), Set.copyOf(enterpriseData.getResourceReaderSecurityControls()),
+                "Reader security controls should not be truncated");
+    }
+
+    @Test
+    void testEventOverHardLimitIsPassedToSideChannel() {
+        String json = TestEvents.nodeEventJson(TestEvents.NODE_UPDATED, "node-1", "index.html", "text/html", authorities(5_000), List.of());
+
+        EventHandlingException exception = Assertions.assertThrows(EventHandlingException.class, () -> transformer.transform(json));
+
+        Assertions.assertFalse(exception.getMessage().contains("GROUP_"), "Payload should not be included in the error");
+        Assertions.assertEquals(1, rejected.size(), "Rejected event should be passed to the sink");
+        OversizedEvent oversizedEvent = rejected.get(0);
+        Assertions.assertEquals(TestEvents.NODE_UPDATED, oversizedEvent.type());
+        Assertions.assertNotNull(oversizedEvent.id());
+        Assertions.assertEquals(json.length(), oversizedEvent.payloadLength());
+        Assertions.assertTrue(oversizedEvent.excerpt().length() < 300, "Only an excerpt of the payload should be kept");
+    }
+
+    private static Set<String> readers(RepoEvent<DataAttributes<Resource>> event) {
+        return Set.copyOf(((EnterpriseEventData<?>) event.getData()).getResourceReaderAuthorities());
+    }
+
+    private static List<String> authorities(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "GROUP_" + i).toList();
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.alfresco.support;
+
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.event.sdk.handling.handler.EventHandler;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.EventType;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link EventHandler} recording the events it receives, for tests of the dispatching of events.
+ * <p>
+ * The behaviour of the handler can be changed with {@link #setAction(Action)}, e.g. to simulate slow or failing handlers.
+ */
+public class RecordingHandler implements EventHandler {
+
+    /**
+     * Code run by the handler before recording an event.
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run(RepoEvent<DataAttributes<Resource>> event) throws Exception;
+    }
+
+    private final Set<EventType> eventTypes;
+    private final BlockingQueue<RepoEvent<DataAttributes<Resource>>> events = new LinkedBlockingQueue<>();
+    private volatile Action action = event -> {
+    };
+
+    /**
+     * Creates a handler for the given event types.
+     *
+     * @param eventTypes the handled event types
+     */
+    public RecordingHandler(EventType... eventTypes) {
+        this.eventTypes = Set.of(eventTypes);
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+
+    @Override
+    public Set<EventType> getHandledEventTypes() {
+        return eventTypes;
+    }
+
+    @Override
+    public EventFilter getEventFilter() {
+        return event -> true;
+    }
+
+    @Override
+    public void handleEvent(RepoEvent<DataAttributes<Resource>> event) {
+        try {
+            action.run(event);
+        } catch (RuntimeException runtimeException) {
+            throw runtimeException;
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+        events.add(event);
+    }
+
+    /**
+     * Waits for the next recorded event.
+     *
+     * @param timeoutMillis the maximum time to wait, in milliseconds
+     * @return the event, or {@code null} if no event was recorded in time
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public RepoEvent<DataAttributes<Resource>> poll(long timeoutMillis) throws InterruptedException {
+        return events.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the number of recorded events not polled yet.
+     *
+     * @return the number of events
+     */
+    public int size() {
+        return events.size();
+    }
+
+}
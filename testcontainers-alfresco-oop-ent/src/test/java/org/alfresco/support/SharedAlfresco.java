@@ -0,0 +1,49 @@
+package org.alfresco.support;
+
+import org.alfresco.testcontainers.AlfrescoContainer;
+import org.testcontainers.activemq.ActiveMQContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Alfresco repository, with its ActiveMQ broker, shared by every integration test of the JVM.
+ * <p>
+ * Containers are started by the first test using them and stopped by Testcontainers when the JVM exits, so adding
+ * test classes does not add container startups. Tests sharing the repository run concurrently and must not depend
+ * on its state: each test works in its own folder, with unique node names, and looks for the events of its own nodes
+ * using {@link CorrelatedLogAppender}.
+ */
+public final class SharedAlfresco {
+
+    private static AlfrescoContainer<?> alfrescoContainer;
+
+    private SharedAlfresco() {
+    }
+
+    /**
+     * Returns the shared repository, starting it on first use.
+     *
+     * @return the running Alfresco container
+     */
+    public static synchronized AlfrescoContainer<?> container() {
+        if (alfrescoContainer == null) {
+            // Spawn Alfresco Enterprise Repository
+            AlfrescoContainer<?> container = new AlfrescoContainer<>(
+                    DockerImageName.parse("quay.io/alfresco/alfresco-content-repository:23.2.1"))
+                    .withMessagingEnabled();
+            container.start();
+            alfrescoContainer = container;
+        }
+        return alfrescoContainer;
+    }
+
+    /**
+     * Returns the URL of the ActiveMQ broker of the shared repository, starting it on first use.
+     *
+     * @return the broker URL, to be registered as {@code spring.activemq.brokerUrl}
+     */
+    public static String brokerUrl() {
+        ActiveMQContainer activemqContainer = container().getActivemqContainer();
+        return "tcp://" + activemqContainer.getHost() + ":" + activemqContainer.getMappedPort(61616);
+    }
+
+}
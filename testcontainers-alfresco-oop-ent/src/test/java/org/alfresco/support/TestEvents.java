@@ -0,0 +1,134 @@
+package org.alfresco.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.alfresco.event.sdk.integration.transformer.EventGenericTransformer;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Builds Alfresco repository events for tests that do not need a running repository.
+ * <p>
+ * Events are written as the JSON sent by Alfresco to ActiveMQ and read back with {@link EventGenericTransformer},
+ * so they are exactly the objects received by filters and handlers in the application.
+ */
+public final class TestEvents {
+
+    public static final String NODE_CREATED = "org.alfresco.event.node.Created";
+    public static final String NODE_UPDATED = "org.alfresco.event.node.Updated";
+    public static final String NODE_DELETED = "org.alfresco.event.node.Deleted";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final EventGenericTransformer TRANSFORMER = new EventGenericTransformer();
+
+    private TestEvents() {
+    }
+
+    /**
+     * Builds the JSON of a node event.
+     *
+     * @param type     the event type, e.g. {@link #NODE_CREATED}
+     * @param nodeId   the id of the node
+     * @param name     the name of the node
+     * @param mimeType the MIME type of the node content
+     * @param readers  the reader authorities, or {@code null} to build a Community event
+     * @param denied   the denied authorities, ignored for Community events
+     * @return the JSON representation of the event
+     */
+    public static String nodeEventJson(String type, String nodeId, String name, String mimeType,
+                                       Collection<String> readers, Collection<String> denied) {
+        return nodeEventTree(type, nodeId, name, mimeType, readers, denied).toString();
+    }
+
+    /**
+     * Builds the JSON tree of a node event, for tests changing it before it is read.
+     *
+     * @param type     the event type, e.g. {@link #NODE_CREATED}
+     * @param nodeId   the id of the node
+     * @param name     the name of the node
+     * @param mimeType the MIME type of the node content
+     * @param readers  the reader authorities, or {@code null} to build a Community event
+     * @param denied   the denied authorities, ignored for Community events
+     * @return the JSON tree of the event
+     */
+    public static ObjectNode nodeEventTree(String type, String nodeId, String name, String mimeType,
+                                           Collection<String> readers, Collection<String> denied) {
+        ObjectNode event = OBJECT_MAPPER.createObjectNode()
+                .put("specversion", "1.0")
+                .put("type", type)
+                .put("id", UUID.randomUUID().toString())
+                .put("source", "/" + UUID.randomUUID())
+                .put("time", "2024-08-01T10:00:00.000Z")
+                .put("dataschema", "https://api.alfresco.com/schema/event/repo/v1/node_created")
+                .put("datacontenttype", "application/json");
+        ObjectNode data = event.putObject("data");
+        data.put("eventGroupId", UUID.randomUUID().toString());
+        ObjectNode resource = data.putObject("resource")
+                .put("@type", "NodeResource")
+                .put("id", nodeId)
+                .put("name", name)
+                .put("nodeType", "cm:content")
+                .put("isFile", true)
+                .put("isFolder", false);
+        resource.putObject("content")
+                .put("mimeType", mimeType)
+                .put("sizeInBytes", 0)
+                .put("encoding", "UTF-8");
+        resource.putArray("aspectNames").add("cm:auditable");
+        if (readers != null) {
+            addAll(data.putArray(EventGenericTransformer.ONLY_ENTERPRISE_PROPERTY), readers);
+            addAll(data.putArray("resourceDeniedAuthorities"), denied);
+            data.putArray("resourceReaderSecurityControls");
+        }
+        return event;
+    }
+
+    /**
+     * Builds a node event.
+     *
+     * @param type     the event type, e.g. {@link #NODE_CREATED}
+     * @param nodeId   the id of the node
+     * @param name     the name of the node
+     * @param mimeType the MIME type of the node content
+     * @param readers  the reader authorities, or {@code null} to build a Community event
+     * @param denied   the denied authorities, ignored for Community events
+     * @return the event, as produced by {@link EventGenericTransformer}
+     */
+    public static RepoEvent<DataAttributes<Resource>> nodeEvent(String type, String nodeId, String name, String mimeType,
+                                                              Collection<String> readers, Collection<String> denied) {
+        return TRANSFORMER.transform(nodeEventJson(type, nodeId, name, mimeType, readers, denied));
+    }
+
+    /**
+     * Reads a node event from its JSON tree, as built by {@link #nodeEventTree} and possibly changed by the test.
+     *
+     * @param json the JSON tree of the event
+     * @return the event, as produced by {@link EventGenericTransformer}
+     */
+    public static RepoEvent<DataAttributes<Resource>> nodeEvent(ObjectNode json) {
+        return TRANSFORMER.transform(json.toString());
+    }
+
+    /**
+     * Builds a Community node event for an HTML file.
+     *
+     * @param type   the event type, e.g. {@link #NODE_CREATED}
+     * @param nodeId the id of the node
+     * @return the event, as produced by {@link EventGenericTransformer}
+     */
+    public static RepoEvent<DataAttributes<Resource>> nodeEvent(String type, String nodeId) {
+        return nodeEvent(type, nodeId, nodeId + ".html", "text/html", null, null);
+    }
+
+    private static void addAll(ArrayNode array, Collection<String> values) {
+        if (values != null) {
+            values.forEach(array::add);
+        }
+    }
+
+}
@@ -7,6 +7,7 @@ import org.alfresco.event.sdk.handling.handler.OnNodeCreatedEventHandler;
 import org.alfresco.repo.event.v1.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.stereotype.Component;
 
 /**
@@ -15,12 +16,19 @@ import org.springframework.stereotype.Component;
  * Specifically, it filters for events where the created node is a file with the MIME type "text/html".
  *
  * The handler logs a message when an HTML content node is created, including the name of the node.
+ * The id of the node is added to the logging context as {@value #MDC_NODE_ID} while the event is handled,
+ * so the messages can be correlated to the node.
  */
 @Component
 public class HtmlContentCreatedHandler implements OnNodeCreatedEventHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HtmlContentCreatedHandler.class);
 
+    /**
+     * The logging context key holding the id of the node of the event being handled.
+     */
+    public static final String MDC_NODE_ID = "nodeId";
+
     /**
      * Handles the event when a new node is created in the Alfresco repository.
      * This method is triggered only for nodes that are files with the MIME type "text/html".
@@ -30,7 +38,9 @@ public class HtmlContentCreatedHandler implements OnNodeCreatedEventHandler {
     @Override
     public void handleEvent(RepoEvent<DataAttributes<Resource>> event) {
         final NodeResource nodeResource = (NodeResource) event.getData().getResource();
-        LOGGER.info("An HTML content named {} has been created!", nodeResource.getName());
+        try (MDC.MDCCloseable nodeId = MDC.putCloseable(MDC_NODE_ID, nodeResource.getId())) {
+            LOGGER.info("An HTML content named {} has been created!", nodeResource.getName());
+        }
     }
 
     /**
@@ -12,7 +12,7 @@ import java.util.Base64;
 /**
  * A simple client for interacting with the Alfresco REST API.
  * <p>
- * This client provides methods for authenticating with Alfresco and creating files (HTML and TXT) within the Alfresco repository.
+ * This client provides methods for authenticating with Alfresco and creating folders and files (HTML and TXT) within the Alfresco repository.
  * It uses OkHttp as the HTTP client and Jackson for JSON parsing.
  */
 @Service
@@ -26,9 +26,11 @@ public class AlfrescoClient {
 
     private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json; charset=utf-8");
     private static final String AUTH_PATH = "/api/-default-/public/authentication/versions/1/tickets";
-    private static final String FILE_CREATION_PATH = "/api/-default-/public/alfresco/versions/1/nodes/-shared-/children";
+    private static final String NODES_PATH = "/api/-default-/public/alfresco/versions/1/nodes/";
+    private static final String SHARED_FOLDER_ID = "-shared-";
 
-    private String alfrescoUrl;
+    // Set by every test, possibly from concurrent threads
+    private volatile String alfrescoUrl;
 
     /**
      * Sets the base URL for the Alfresco instance.
@@ -71,14 +73,32 @@ public class AlfrescoClient {
         }
     }
 
+    /**
+     * Creates a folder in the shared files of the Alfresco repository.
+     *
+     * @param folderName the name of the folder to be created
+     * @return the created node in Alfresco
+     * @throws IOException if there is an error during the HTTP request
+     */
+    public CreatedNode createFolderInAlfresco(String folderName) throws IOException {
+        String jsonBody = String.format("""
+        {
+          "name": "%s",
+          "nodeType": "cm:folder"
+        }
+        """, folderName);
+        return createNodeInAlfresco(SHARED_FOLDER_ID, jsonBody);
+    }
+
     /**
      * Creates an HTML file in the Alfresco repository.
      *
+     * @param parentId the id of the folder where the file is created
      * @param filename the name of the HTML file to be created
-     * @return the name of the created node in Alfresco
+     * @return the created node in Alfresco
      * @throws IOException if there is an error during the HTTP request
      */
-    public String createHtmlFileInAlfresco(String filename) throws IOException {
+    public CreatedNode createHtmlFileInAlfresco(String parentId, String filename) throws IOException {
         String jsonBody = String.format("""
         {
           "name": "%s",
@@ -88,17 +108,18 @@ public class AlfrescoClient {
           }
         }
         """, filename);
-        return createFileInAlfresco(jsonBody);
+        return createNodeInAlfresco(parentId, jsonBody);
     }
 
     /**
      * Creates a TXT file in the Alfresco repository.
      *
+     * @param parentId the id of the folder where the file is created
      * @param filename the name of the TXT file to be created
-     * @return the name of the created node in Alfresco
+     * @return the created node in Alfresco
      * @throws IOException if there is an error during the HTTP request
      */
-    public String createTxtFileInAlfresco(String filename) throws IOException {
+    public CreatedNode createTxtFileInAlfresco(String parentId, String filename) throws IOException {
         String jsonBody = String.format("""
         {
           "name": "%s",
@@ -108,31 +129,32 @@ public class AlfrescoClient {
           }
         }
         """, filename);
-        return createFileInAlfresco(jsonBody);
+        return createNodeInAlfresco(parentId, jsonBody);
     }
 
     /**
-     * Creates a file in the Alfresco repository using the provided JSON body.
+     * Creates a node in the Alfresco repository using the provided JSON body.
      *
-     * @param jsonBody JSON string representing the file properties and metadata
-     * @return the name of the created node in Alfresco
+     * @param parentId the id of the folder where the node is created
+     * @param jsonBody JSON string representing the node properties and metadata
+     * @return the created node in Alfresco
      * @throws IOException if there is an error during the HTTP request
      */
-    private String createFileInAlfresco(String jsonBody) throws IOException {
+    private CreatedNode createNodeInAlfresco(String parentId, String jsonBody) throws IOException {
         String authTicket = getAlfrescoAuthTicket();
         RequestBody body = RequestBody.create(jsonBody, JSON_MEDIA_TYPE);
         Request request = new Request.Builder()
-                .url(alfrescoUrl + FILE_CREATION_PATH)
+                .url(alfrescoUrl + NODES_PATH + parentId + "/children")
                 .header("Authorization", "Basic " + encodeCredentials(authTicket))
                 .post(body)
                 .build();
 
         try (Response response = CLIENT.newCall(request).execute()) {
             if (!response.isSuccessful()) {
-                throw new IOException("Failed to create file in Alfresco: " + response);
+                throw new IOException("Failed to create node in Alfresco: " + response);
             }
-            JsonNode jsonNode = OBJECT_MAPPER.readTree(response.body().string());
-            return jsonNode.path("entry").path("name").asText();
+            JsonNode entry = OBJECT_MAPPER.readTree(response.body().string()).path("entry");
+            return new CreatedNode(entry.path("id").asText(), entry.path("name").asText());
         }
     }
 
@@ -146,4 +168,13 @@ public class AlfrescoClient {
         return Base64.getEncoder().encodeToString(authTicket.getBytes(StandardCharsets.UTF_8));
     }
 
-}
\ No newline at end of file
+    /**
+     * A node created in the Alfresco repository.
+     *
+     * @param id   the id of the node, used to correlate the events of the node
+     * @param name the name of the node
+     */
+    public record CreatedNode(String id, String name) {
+    }
+
+}
@@ -0,0 +1,86 @@
+package org.alfresco.support;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * In-memory log appender indexing the messages of a logger by node, using a logging context entry holding the id
+ * of the node, like {@link org.alfresco.handler.HtmlContentCreatedHandler#MDC_NODE_ID}.
+ * <p>
+ * Tests running concurrently against the same repository only look at the messages of the nodes they created,
+ * and wait for them instead of sleeping. One appender is created for each logger and logging context key on first use,
+ * and stays attached to the logger for the lifetime of the JVM.
+ */
+public class CorrelatedLogAppender extends AppenderBase<ILoggingEvent> {
+
+    private static final Map<String, CorrelatedLogAppender> APPENDERS = new HashMap<>();
+
+    private final String mdcKey;
+    private final Map<String, List<String>> messagesByNode = new HashMap<>();
+
+    private CorrelatedLogAppender(String mdcKey) {
+        this.mdcKey = mdcKey;
+    }
+
+    /**
+     * Returns the appender of a logger, attaching it on first use.
+     *
+     * @param loggerClass the class of the logger, e.g. a handler
+     * @param mdcKey      the logging context key holding the id of the node, set by the logger class
+     * @return the appender capturing the messages of the logger
+     */
+    public static synchronized CorrelatedLogAppender of(Class<?> loggerClass, String mdcKey) {
+        return APPENDERS.computeIfAbsent(loggerClass.getName() + "|" + mdcKey, key -> {
+            CorrelatedLogAppender appender = new CorrelatedLogAppender(mdcKey);
+            appender.setContext((LoggerContext) LoggerFactory.getILoggerFactory());
+            appender.start();
+            ((Logger) LoggerFactory.getLogger(loggerClass)).addAppender(appender);
+            return appender;
+        });
+    }
+
+    @Override
+    protected synchronized void append(ILoggingEvent event) {
+        String nodeId = event.getMDCPropertyMap().get(mdcKey);
+        if (nodeId != null) {
+            messagesByNode.computeIfAbsent(nodeId, id -> new ArrayList<>()).add(event.getFormattedMessage());
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits for messages logged while handling the events of a node.
+     *
+     * @param nodeId  the id of the node
+     * @param count   the number of messages to wait for
+     * @param timeout the maximum time to wait
+     * @return the messages of the node, in logging order; fewer than {@code count} if the timeout elapsed
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public synchronized List<String> awaitMessages(String nodeId, int count, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long remainingMillis = timeout.toMillis();
+        while (messagesOf(nodeId).size() < count && remainingMillis > 0) {
+            wait(remainingMillis);
+            remainingMillis = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+        }
+        return messagesOf(nodeId);
+    }
+
+    /**
+     * Returns the messages logged so far while handling the events of a node.
+     *
+     * @param nodeId the id of the node
+     * @return the messages of the node, in logging order
+     */
+    public synchronized List<String> messagesOf(String nodeId) {
+        return List.copyOf(messagesByNode.getOrDefault(nodeId, List.of()));
+    }
+
+}